@@ -9,6 +9,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
 
+import java.util.List;
+
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
@@ -31,17 +33,27 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 
+    public ResponseEntity<Object> approvedBookings(long userId, List<Long> bookingIds, boolean approved) {
+        return patch("/batch?approved=" + approved, userId, bookingIds);
+    }
+
     public ResponseEntity<Object> getBookingById(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        BookingRequestParams params = new BookingRequestParams(state.name(), from, size);
-        return get("?state={state}&from={from}&size={size}", userId, params.toMap());
+    public ResponseEntity<Object> getBookings(long userId, BookingRequestParams params) {
+        return get(params.toQuery(), userId, params.toMap());
+    }
+
+    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingRequestParams params) {
+        return get("/owner" + params.toQuery(), userId, params.toMap());
+    }
+
+    public ResponseEntity<Object> getCompactBookings(long userId, BookingRequestParams params) {
+        return get("/compact" + params.toQuery(), userId, params.toMap());
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingState state, Integer from, Integer size) {
-        BookingRequestParams params = new BookingRequestParams(state.name(), from, size);
-        return get("/owner?state={state}&from={from}&size={size}", userId, params.toMap());
+    public ResponseEntity<Object> getCompactBookingsByOwner(long userId, BookingRequestParams params) {
+        return get("/owner/compact" + params.toQuery(), userId, params.toMap());
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,26 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.Constants;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Slf4j
 @Validated
 @Controller
@@ -19,11 +29,13 @@ import ru.practicum.shareit.Constants;
 public class BookingController {
     public static final String X_SHARER_USER_ID = Constants.X_SHARER_USER_ID;
     private final BookingClient bookingClient;
+    private final BookingStreamProxy bookingStreamProxy;
 
     @PostMapping
     public ResponseEntity<Object> createBooking(@RequestHeader(X_SHARER_USER_ID) long userId,
                                                 @Valid @RequestBody BookItemRequestDto requestDto) {
-        log.info("Бронирование вещи: {}, пользователем с id: {}", requestDto, userId);
+        log.info("Бронирование вещи с id: {} пользователем с id: {}", requestDto.getItemId(), userId);
+        log.debug("Бронирование вещи: {}", requestDto);
         return bookingClient.createBooking(userId, requestDto);
     }
 
@@ -35,6 +47,15 @@ public class BookingController {
         return bookingClient.approvedBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approvedBookings(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                   @RequestBody @NotEmpty @Size(max = 1000)
+                                                   List<@NotNull @Positive Long> bookingIds,
+                                                   @RequestParam boolean approved) {
+        log.info("Пакетное подтверждение {} бронирований пользователем с id: {}", bookingIds.size(), userId);
+        return bookingClient.approvedBookings(userId, bookingIds, approved);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(@RequestHeader(X_SHARER_USER_ID) long userId,
                                                  @PathVariable Long bookingId) {
@@ -45,27 +66,95 @@ public class BookingController {
     @GetMapping
     public ResponseEntity<Object> getBookings(@RequestHeader(X_SHARER_USER_ID) long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                              @Positive @RequestParam(required = false) Long itemId,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                              LocalDateTime rangeStart,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                              LocalDateTime rangeEnd,
                                               @PositiveOrZero @RequestParam(name = "from",
                                                       defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size",
+                                              @Positive @Max(100) @RequestParam(name = "size",
                                                       defaultValue = "10") Integer size) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Неизвестный статус: " + stateParam));
         log.info("Получение бронирований {} пользователем с id {} с {} в колличестве {}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        return bookingClient.getBookings(userId,
+                new BookingRequestParams(state.name(), from, size, itemId, rangeStart, rangeEnd));
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwner(@RequestHeader(X_SHARER_USER_ID) long userId,
                                                      @RequestParam(name = "state",
                                                              defaultValue = "all") String stateParam,
+                                                     @Positive @RequestParam(required = false) Long itemId,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime rangeStart,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime rangeEnd,
                                                      @PositiveOrZero @RequestParam(name = "from",
                                                              defaultValue = "0") Integer from,
-                                                     @Positive @RequestParam(name = "size",
+                                                     @Positive @Max(100) @RequestParam(name = "size",
                                                              defaultValue = "10") Integer size) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Неизвестный статус: " + stateParam));
         log.info("Получение бронирований {} владельцем с id{} с {} в колличестве {}", stateParam, userId, from, size);
-        return bookingClient.getBookingsByOwner(userId, state, from, size);
+        return bookingClient.getBookingsByOwner(userId,
+                new BookingRequestParams(state.name(), from, size, itemId, rangeStart, rangeEnd));
+    }
+
+    @GetMapping("/compact")
+    public ResponseEntity<Object> getCompactBookings(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                     @RequestParam(name = "state",
+                                                             defaultValue = "all") String stateParam,
+                                                     @Positive @RequestParam(required = false) Long itemId,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime rangeStart,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime rangeEnd,
+                                                     @PositiveOrZero @RequestParam(name = "from",
+                                                             defaultValue = "0") Integer from,
+                                                     @Positive @Max(100) @RequestParam(name = "size",
+                                                             defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестный статус: " + stateParam));
+        log.info("Получение компактного списка бронирований {} пользователем с id {} с {} в количестве {}",
+                stateParam, userId, from, size);
+        return bookingClient.getCompactBookings(userId,
+                new BookingRequestParams(state.name(), from, size, itemId, rangeStart, rangeEnd));
+    }
+
+    @GetMapping("/owner/compact")
+    public ResponseEntity<Object> getCompactBookingsByOwner(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                            @RequestParam(name = "state",
+                                                                    defaultValue = "all") String stateParam,
+                                                            @Positive @RequestParam(required = false) Long itemId,
+                                                            @RequestParam(required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                            LocalDateTime rangeStart,
+                                                            @RequestParam(required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                            LocalDateTime rangeEnd,
+                                                            @PositiveOrZero @RequestParam(name = "from",
+                                                                    defaultValue = "0") Integer from,
+                                                            @Positive @Max(100) @RequestParam(name = "size",
+                                                                    defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестный статус: " + stateParam));
+        log.info("Получение компактного списка бронирований {} владельцем с id {} с {} в количестве {}",
+                stateParam, userId, from, size);
+        return bookingClient.getCompactBookingsByOwner(userId,
+                new BookingRequestParams(state.name(), from, size, itemId, rangeStart, rangeEnd));
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingsByOwner(@RequestHeader(X_SHARER_USER_ID) long userId) {
+        log.info("Подписка владельца с id {} на поток бронирований", userId);
+        return bookingStreamProxy.stream(userId);
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Data
 @NoArgsConstructor
@@ -13,12 +16,31 @@ public class BookingRequestParams {
     private String state;
     private Integer from;
     private Integer size;
+    private Long itemId;
+    private LocalDateTime rangeStart;
+    private LocalDateTime rangeEnd;
 
+    // Необязательные параметры передаются на сервер, только если заданы.
     public Map<String, Object> toMap() {
-        return Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("state", state);
+        params.put("from", from);
+        params.put("size", size);
+        if (itemId != null) {
+            params.put("itemId", itemId);
+        }
+        if (rangeStart != null) {
+            params.put("rangeStart", rangeStart);
+        }
+        if (rangeEnd != null) {
+            params.put("rangeEnd", rangeEnd);
+        }
+        return params;
     }
-}
\ No newline at end of file
+
+    public String toQuery() {
+        return toMap().keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&", "?", ""));
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.Constants;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Flow;
+
+/**
+ * Проксирует SSE-поток бронирований владельца с сервера. В отличие от RestTemplate, HttpClient
+ * читает ответ неблокирующе, поэтому неактивные подписки не занимают потоки шлюза.
+ * События разбираются построчно и пересылаются клиенту по мере поступления.
+ */
+@Slf4j
+@Component
+public class BookingStreamProxy {
+
+    private final HttpClient httpClient;
+    private final URI streamUri;
+    private final Duration timeout;
+
+    public BookingStreamProxy(@Value("${shareit-server.url}") String serverUrl,
+                              @Value("${shareit.bookings.stream.timeout:31m}") Duration timeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.streamUri = URI.create(serverUrl + "/bookings/owner/stream");
+        this.timeout = timeout;
+    }
+
+    public SseEmitter stream(long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        EventForwarder forwarder = new EventForwarder(userId, emitter);
+        emitter.onCompletion(forwarder::cancel);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> forwarder.cancel());
+
+        HttpRequest request = HttpRequest.newBuilder(streamUri)
+                .header(Constants.X_SHARER_USER_ID, String.valueOf(userId))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .GET()
+                .build();
+        httpClient.sendAsync(request, responseInfo -> {
+            if (responseInfo.statusCode() != 200) {
+                log.warn("Сервер отклонил подписку владельца с id {}: статус {}", userId, responseInfo.statusCode());
+                emitter.complete();
+                return HttpResponse.BodySubscribers.discarding();
+            }
+            return HttpResponse.BodySubscribers.fromLineSubscriber(forwarder);
+        }).whenComplete((response, error) -> {
+            if (error != null) {
+                log.warn("Поток бронирований владельца с id {} прерван: {}", userId, error.getMessage());
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Собирает строки SSE в события: поля id, event и data до пустой строки, комментарии
+     * пересылаются сразу. Следующая строка запрашивается после отправки предыдущей, поэтому
+     * медленный клиент не приводит к накоплению событий в шлюзе.
+     */
+    private static final class EventForwarder implements Flow.Subscriber<String> {
+        private final long userId;
+        private final SseEmitter emitter;
+        private Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private SseEmitter.SseEventBuilder event;
+
+        private EventForwarder(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            try {
+                if (line.isEmpty()) {
+                    if (event != null) {
+                        emitter.send(event);
+                        event = null;
+                    }
+                } else if (line.startsWith(":")) {
+                    emitter.send(SseEmitter.event().comment(line.substring(1)));
+                } else {
+                    addField(line);
+                }
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подписчик владельца с id {} отключился от шлюза: {}", userId, e.getMessage());
+                cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!cancelled) {
+                log.warn("Ошибка потока бронирований владельца с id {}: {}", userId, throwable.getMessage());
+                emitter.complete();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.complete();
+        }
+
+        private void addField(String line) {
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1).stripLeading();
+            if (event == null) {
+                event = SseEmitter.event();
+            }
+            switch (field) {
+                case "id" -> event.id(value);
+                case "event" -> event.name(value);
+                case "data" -> event.data(value);
+                case "retry" -> event.reconnectTime(Long.parseLong(value));
+                default -> {
+                }
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
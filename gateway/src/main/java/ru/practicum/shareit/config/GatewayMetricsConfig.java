@@ -0,0 +1,31 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import ru.practicum.shareit.booking.BookingState;
+
+@Configuration
+public class GatewayMetricsConfig {
+
+    /**
+     * Тег state в http.server.requests, чтобы латентность списков бронирований смотреть по фильтрам.
+     */
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                String state = context.getCarrier().getParameter("state");
+                String value = state == null
+                        ? "none"
+                        : BookingState.from(state).map(Enum::name).orElse("invalid");
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("state", value));
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Читает вещи из JSON-массива или NDJSON-потока по одной, валидирует и отправляет на сервер пачками.
+ * Результат по каждой строке сразу пишется в выходной поток в формате NDJSON,
+ * поэтому в памяти одновременно находится не больше одной пачки.
+ */
+@Slf4j
+@Component
+public class ItemBatchImporter {
+
+    private final ItemClient itemClient;
+    private final ObjectMapper mapper;
+    private final Validator validator;
+    private final int batchSize;
+
+    public ItemBatchImporter(ItemClient itemClient, ObjectMapper mapper, Validator validator,
+                             @Value("${shareit.items.import.batch-size:100}") int batchSize) {
+        this.itemClient = itemClient;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public void importItems(int userId, InputStream in, OutputStream out) throws IOException {
+        List<ItemRequestDto> batch = new ArrayList<>(batchSize);
+        List<Integer> batchRows = new ArrayList<>(batchSize);
+        int row = 0;
+
+        try (MappingIterator<ItemRequestDto> rows = mapper.readerFor(ItemRequestDto.class).readValues(in)) {
+            while (rows.hasNextValue()) {
+                ItemRequestDto requestDto;
+                try {
+                    requestDto = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    writeResult(out, new ItemBatchResultDto(row++, null,
+                            "Некорректная строка: " + e.getOriginalMessage()));
+                    continue;
+                }
+
+                String error = validate(requestDto);
+                if (error != null) {
+                    writeResult(out, new ItemBatchResultDto(row++, null, error));
+                    continue;
+                }
+
+                batch.add(requestDto);
+                batchRows.add(row++);
+                if (batch.size() == batchSize) {
+                    sendBatch(userId, batch, batchRows, out);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Импорт вещей пользователем с id {} прерван на строке {}: {}",
+                    userId, row, e.getOriginalMessage());
+            writeResult(out, new ItemBatchResultDto(row, null, "Некорректный JSON: " + e.getOriginalMessage()));
+        }
+
+        if (!batch.isEmpty()) {
+            sendBatch(userId, batch, batchRows, out);
+        }
+        out.flush();
+        log.info("Импорт вещей пользователем с id {} завершен, обработано строк: {}", userId, row);
+    }
+
+    private String validate(ItemRequestDto requestDto) {
+        if (requestDto == null) {
+            return "Вещь не может быть пустой!";
+        }
+        List<String> messages = validator.validate(requestDto).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+        return messages.isEmpty() ? null : String.join(" ", messages);
+    }
+
+    private void sendBatch(int userId, List<ItemRequestDto> batch, List<Integer> batchRows,
+                           OutputStream out) throws IOException {
+        try {
+            for (ItemBatchResultDto result : itemClient.createItems(userId, batch)) {
+                result.setRow(batchRows.get(result.getRow()));
+                writeResult(out, result);
+            }
+        } catch (HttpStatusCodeException e) {
+            ErrorResponse errorResponse = e.getResponseBodyAs(ErrorResponse.class);
+            String error = errorResponse != null ? errorResponse.description() : e.getStatusText();
+            for (Integer batchRow : batchRows) {
+                writeResult(out, new ItemBatchResultDto(batchRow, null, error));
+            }
+        }
+        out.flush();
+        batch.clear();
+        batchRows.clear();
+    }
+
+    private void writeResult(OutputStream out, ItemBatchResultDto result) throws IOException {
+        out.write(mapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+}
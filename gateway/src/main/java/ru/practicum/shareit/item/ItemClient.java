@@ -3,12 +3,21 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Service
 public class ItemClient extends BaseClient {
 
@@ -28,6 +37,13 @@ public class ItemClient extends BaseClient {
         return post("", userId, requestDto);
     }
 
+    public List<ItemBatchResultDto> createItems(int userId, List<ItemRequestDto> requestDtos) {
+        HttpEntity<List<ItemRequestDto>> requestEntity = new HttpEntity<>(requestDtos, defaultHeaders((long) userId));
+        return rest.exchange("/batch", HttpMethod.POST, requestEntity,
+                new ParameterizedTypeReference<List<ItemBatchResultDto>>() {
+                }).getBody();
+    }
+
     public ResponseEntity<Object> updateItem(int userId, int itemId, ItemRequestDto requestDto) {
         return patch("/" + itemId, userId, requestDto);
     }
@@ -40,11 +56,44 @@ public class ItemClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> searchItems(int userId, String text) {
-        return get("/search?text=" + text, userId);
+    public ResponseEntity<Object> searchItems(int userId, String text, LocalDateTime start, LocalDateTime end) {
+        if (start == null && end == null) {
+            return get("/search?text=" + text, userId);
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("start", start);
+        parameters.put("end", end);
+        return get("/search?text={text}&start={start}&end={end}", (long) userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(int userId, int itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", (long) userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(int userId, List<Integer> itemIds, LocalDateTime from,
+                                                  LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "itemIds", itemIds.stream().map(String::valueOf).collect(Collectors.joining(",")),
+                "from", from,
+                "to", to
+        );
+        return get("/availability?itemIds={itemIds}&from={from}&to={to}", (long) userId, parameters);
     }
 
     public ResponseEntity<Object> addComment(int userId, int itemId, CommentRequestDto requestDto) {
         return post("/" + itemId + "/comment", userId, requestDto);
     }
+
+    public ResponseEntity<Object> getComments(int userId, int itemId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?from={from}&size={size}", (long) userId, parameters);
+    }
 }
\ No newline at end of file
@@ -1,14 +1,26 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Constants;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Slf4j
 @Validated
 @Controller
@@ -18,20 +30,33 @@ public class ItemController {
     public static final String X_SHARER_USER_ID = Constants.X_SHARER_USER_ID;
 
     private final ItemClient itemClient;
+    private final ItemBatchImporter itemBatchImporter;
 
     @PostMapping
     public ResponseEntity<Object> createItem(@RequestHeader(X_SHARER_USER_ID) int userId,
                                              @Valid @RequestBody ItemRequestDto requestDto) {
 
-        log.info("Добавление вещи: {}, пользователем с id: {}", requestDto, userId);
+        log.info("Добавление вещи пользователем с id: {}", userId);
+        log.debug("Добавление вещи: {}", requestDto);
         return itemClient.createItem(userId, requestDto);
     }
 
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void createItems(@RequestHeader(X_SHARER_USER_ID) int userId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        log.info("Пакетное добавление вещей пользователем с id: {}", userId);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        itemBatchImporter.importItems(userId, request.getInputStream(), response.getOutputStream());
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader(X_SHARER_USER_ID) int userId,
                                              @PathVariable int itemId,
                                              @RequestBody ItemRequestDto requestDto) {
-        log.info("Обновление вещи: {}, пользователем с id: {}", requestDto, userId);
+        log.info("Обновление вещи с id: {} пользователем с id: {}", itemId, userId);
+        log.debug("Обновление вещи: {}", requestDto);
         return itemClient.updateItem(userId, itemId, requestDto);
     }
 
@@ -50,9 +75,37 @@ public class ItemController {
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestHeader(X_SHARER_USER_ID) int userId,
-                                              @RequestParam String text) {
-        log.info("Поиск вещи по запросу: {}, пользователем с id: {}", text, userId);
-        return itemClient.searchItems(userId, text);
+                                              @RequestParam String text,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                              LocalDateTime start,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                              LocalDateTime end) {
+        log.info("Поиск вещи по запросу: {}, свободной с {} по {}, пользователем с id: {}", text, start, end, userId);
+        return itemClient.searchItems(userId, text, start, end);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                  @PathVariable int itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to) {
+        log.info("Получение доступности вещи с id: {} с {} по {}", itemId, from, to);
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                  @NotEmpty @RequestParam List<@Positive Integer> itemIds,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to) {
+        log.info("Получение доступности {} вещей с {} по {}", itemIds.size(), from, to);
+        return itemClient.getAvailability(userId, itemIds, from, to);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -62,4 +115,13 @@ public class ItemController {
         log.info("Добавление комментария к вещи с id: {}", itemId);
         return itemClient.addComment(userId, itemId, requestDto);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                              @PathVariable int itemId,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                              @Positive @RequestParam(defaultValue = "10") int size) {
+        log.info("Получение комментариев к вещи с id: {} с {} в количестве {}", itemId, from, size);
+        return itemClient.getComments(userId, itemId, from, size);
+    }
 }
\ No newline at end of file
@@ -32,6 +32,10 @@ public class ItemRequestClient extends BaseClient {
         return get("/" + requestId, userId);
     }
 
+    public ResponseEntity<Object> getMatches(int userId, int requestId) {
+        return get("/" + requestId + "/matches", userId);
+    }
+
     public ResponseEntity<Object> getAllRequestByUserId(int userId) {
         return get("", userId);
     }
@@ -22,7 +22,8 @@ public class ItemRequestController {
     @PostMapping
     public ResponseEntity<Object> createRequest(@RequestHeader(X_SHARER_USER_ID) int userId,
                                                 @Valid @RequestBody ItemRequestDto request) {
-        log.info("Добавление запроса: {}", request);
+        log.info("Добавление запроса пользователем с id: {}", userId);
+        log.debug("Добавление запроса: {}", request);
         return itemRequestClient.createRequest(userId, request);
     }
 
@@ -33,6 +34,13 @@ public class ItemRequestController {
         return itemRequestClient.getRequestById(userId, requestId);
     }
 
+    @GetMapping("/{requestId}/matches")
+    public ResponseEntity<Object> getMatches(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                             @PathVariable int requestId) {
+        log.info("Получение предложенных вещей для запроса с id: {}", requestId);
+        return itemRequestClient.getMatches(userId, requestId);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllRequestByUserId(@RequestHeader(X_SHARER_USER_ID) int userId) {
         log.info("Получение списка всех запросов пользователя с id: {}", userId);
@@ -9,6 +9,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Service
 public class UserClient extends BaseClient {
 
@@ -36,7 +40,31 @@ public class UserClient extends BaseClient {
         return get("/" + userId);
     }
 
-    public void deleteUser(int userId) {
-        delete("/" + userId);
+    // Необязательные параметры передаются на сервер, только если заданы.
+    public ResponseEntity<Object> getUsers(int from, int size, Integer after, String email, String name) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        if (email != null) {
+            parameters.put("email", email);
+        }
+        if (name != null) {
+            parameters.put("name", name);
+        }
+        String query = parameters.keySet().stream()
+                .map(parameter -> parameter + "={" + parameter + "}")
+                .collect(Collectors.joining("&", "?", ""));
+        return get(query, null, parameters);
+    }
+
+    public ResponseEntity<Object> deleteUser(int userId) {
+        return delete("/" + userId);
+    }
+
+    public ResponseEntity<Object> getDeletion(int userId) {
+        return get("/" + userId + "/deletion");
     }
 }
\ No newline at end of file
@@ -1,9 +1,10 @@
 package ru.practicum.shareit.user;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -34,9 +35,22 @@ public class UserController {
         return userClient.getUser(userId);
     }
 
+    @GetMapping
+    public ResponseEntity<Object> getUsers(@PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                           @Positive @RequestParam(defaultValue = "10") int size,
+                                           @PositiveOrZero @RequestParam(required = false) Integer after,
+                                           @RequestParam(required = false) String email,
+                                           @RequestParam(required = false) String name) {
+        return userClient.getUsers(from, size, after, email, name);
+    }
+
     @DeleteMapping("/{userId}")
     public ResponseEntity<Object> deleteUser(@PathVariable Integer userId) {
-        userClient.deleteUser(userId);
-        return new ResponseEntity<>(HttpStatus.OK);
+        return userClient.deleteUser(userId);
+    }
+
+    @GetMapping("/{userId}/deletion")
+    public ResponseEntity<Object> getDeletion(@PathVariable Integer userId) {
+        return userClient.getDeletion(userId);
     }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -24,6 +25,9 @@ class BookingControllerTest {
     @MockBean
     private BookingClient client;
 
+    @MockBean
+    private BookingStreamProxy bookingStreamProxy;
+
     @Autowired
     private MockMvc mvc;
 
@@ -135,7 +139,8 @@ class BookingControllerTest {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
 
-        when(client.getBookings(userId, state, from, size)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(client.getBookings(userId, new BookingRequestParams(state.name(), from, size, null, null, null)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", userId)
@@ -156,7 +161,9 @@ class BookingControllerTest {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
 
-        when(client.getBookings(userId, state, from, size)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(client.getBookingsByOwner(userId,
+                new BookingRequestParams(state.name(), from, size, null, null, null)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
         mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", userId)
@@ -168,6 +175,20 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getCompactBookingsByOwner_whenBookingsFound_thenRequestSentToCompactList() throws Exception {
+        BookingRequestParams params = new BookingRequestParams(BookingState.WAITING.name(), 0, 10, null, null, null);
+        when(client.getCompactBookingsByOwner(userId, params)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        mvc.perform(get("/bookings/owner/compact")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("state", "waiting")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(client).getCompactBookingsByOwner(userId, params);
+    }
+
     @Test
     void getBookingState_whenStateIsEmpty_thrownException() {
         String stateParam = "";
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBatchImporterTest {
+
+    @Mock
+    private ItemClient itemClient;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ItemBatchImporter importer;
+    private final int userId = 1;
+
+    @BeforeEach
+    void setUp() {
+        importer = new ItemBatchImporter(itemClient, mapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), 2);
+    }
+
+    @Test
+    void importItems_whenNdjson_thenInvalidRowsReportedAndValidRowsSentInBatches() throws Exception {
+        when(itemClient.createItems(eq(userId), anyList())).thenAnswer(invocation -> {
+            List<ItemRequestDto> batch = invocation.getArgument(1);
+            return IntStream.range(0, batch.size())
+                    .mapToObj(i -> new ItemBatchResultDto(i, 100 + i, null))
+                    .toList();
+        });
+        String body = String.join("\n",
+                "{\"name\":\"drill\",\"description\":\"drill\",\"available\":true}",
+                "{\"name\":\"\",\"description\":\"saw\",\"available\":true}",
+                "{\"name\":\"saw\",\"description\":\"saw\",\"available\":true}",
+                "{\"name\":\"axe\",\"description\":\"axe\",\"available\":false}");
+
+        List<ItemBatchResultDto> results = importItems(body);
+
+        assertEquals(4, results.size());
+        assertEquals(0, results.get(1).getRow());
+        assertEquals(100, results.get(1).getId());
+        assertEquals(1, results.getFirst().getRow());
+        assertEquals("Название должно быть указано!", results.getFirst().getError());
+        assertEquals(2, results.get(2).getRow());
+        assertEquals(3, results.get(3).getRow());
+        assertNull(results.get(3).getError());
+
+        ArgumentCaptor<List<ItemRequestDto>> batches = ArgumentCaptor.forClass(List.class);
+        verify(itemClient, times(2)).createItems(eq(userId), batches.capture());
+    }
+
+    @Test
+    void importItems_whenJsonArray_thenRowsSentToServer() throws Exception {
+        when(itemClient.createItems(eq(userId), anyList()))
+                .thenReturn(List.of(new ItemBatchResultDto(0, 7, null)));
+        String body = "[{\"name\":\"drill\",\"description\":\"drill\",\"available\":true}]";
+
+        List<ItemBatchResultDto> results = importItems(body);
+
+        assertEquals(1, results.size());
+        assertEquals(7, results.getFirst().getId());
+    }
+
+    @Test
+    void importItems_whenJsonMalformed_thenErrorRowWritten() throws Exception {
+        List<ItemBatchResultDto> results = importItems("{\"name\":");
+
+        assertEquals(1, results.size());
+        assertEquals(0, results.getFirst().getRow());
+        verify(itemClient, never()).createItems(anyInt(), anyList());
+    }
+
+    private List<ItemBatchResultDto> importItems(String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importer.importItems(userId, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return mapper.readValue(line, ItemBatchResultDto.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
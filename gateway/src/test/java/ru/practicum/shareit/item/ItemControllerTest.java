@@ -29,6 +29,9 @@ class ItemControllerTest {
     @MockBean
     private ItemClient itemClient;
 
+    @MockBean
+    private ItemBatchImporter itemBatchImporter;
+
     private ItemRequestDto requestDto;
     private int userId;
     private int itemId;
@@ -129,7 +132,7 @@ class ItemControllerTest {
     void searchItems_whenItemFound_thenResponseIsOk() throws Exception {
         final String text = "searchItem";
 
-        when(itemClient.searchItems(userId, text)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+        when(itemClient.searchItems(userId, text, null, null)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
         mvc.perform(get("/items/search?text={text}", text)
                         .header("X-Sharer-User-Id", userId)
@@ -132,8 +132,24 @@ class UserControllerTest {
         verify(userClient, times(1)).getUser(userId);
     }
 
+    @Test
+    void getUsers_whenParamsValid_thenFiltersPassedToServer() throws Exception {
+        when(userClient.getUsers(0, 20, 5, "ivan", null)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        mvc.perform(get("/users")
+                        .param("size", "20")
+                        .param("after", "5")
+                        .param("email", "ivan")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(userClient, times(1)).getUsers(0, 20, 5, "ivan", null);
+    }
+
     @Test
     void deleteUser_whenUserFound_thenResponseIsOk() throws Exception {
+        when(userClient.deleteUser(userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
         mvc.perform(delete("/users/{userId}", userId)
                         .header("X-Sharer-User-Id", userId)
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -143,4 +159,15 @@ class UserControllerTest {
 
         verify(userClient, times(1)).deleteUser(userId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getDeletion_whenDeletionFound_thenResponseIsOk() throws Exception {
+        when(userClient.getDeletion(userId)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        mvc.perform(get("/users/{userId}/deletion", userId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(userClient, times(1)).getDeletion(userId);
+    }
+}
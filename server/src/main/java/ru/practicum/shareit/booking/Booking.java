@@ -28,10 +28,12 @@ public class Booking {
     private LocalDateTime end;
 
     @ManyToOne
+    @ToString.Exclude
     @JoinColumn(name = "item_id")
     private Item item;
 
     @ManyToOne
+    @ToString.Exclude
     @JoinColumn(name = "booker_id")
     private User booker;
 
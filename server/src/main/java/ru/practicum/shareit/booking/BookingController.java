@@ -2,11 +2,17 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.Constants;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForList;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -17,12 +23,14 @@ public class BookingController {
     public static final String X_SHARER_USER_ID = Constants.X_SHARER_USER_ID;
 
     private final BookingService bookingService;
+    private final OwnerBookingStream ownerBookingStream;
 
     @PostMapping
     public BookingDtoResponse createBooking(@RequestHeader(X_SHARER_USER_ID) int userId,
                                             @RequestBody BookingDtoRequest bookingDtoRequest) {
         BookingDtoResponse bookingResponse = bookingService.createBooking(userId, bookingDtoRequest);
-        log.info("{} - забронирован(а)", bookingResponse);
+        log.info("Пользователь с id: {} создал бронирование с id: {}", userId, bookingResponse.getId());
+        log.debug("{} - забронирован(а)", bookingResponse);
         return bookingResponse;
     }
 
@@ -33,32 +41,136 @@ public class BookingController {
 
         BookingDtoResponse bookingResponse = bookingService.approvedBooking(userId, bookingId, approved);
 
-        log.info("Бронирование: {} - {}", bookingResponse, approved ? "подтверждено" : "отклонено");
+        log.info("Бронирование с id: {} - {}", bookingId, approved ? "подтверждено" : "отклонено");
+        log.debug("Бронирование: {}", bookingResponse);
         return bookingResponse;
     }
 
+    @PatchMapping("/batch")
+    public List<BookingApprovalResultDto> approvedBookings(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                           @RequestBody List<Integer> bookingIds,
+                                                           @RequestParam boolean approved) {
+        List<BookingApprovalResultDto> results = bookingService.approvedBookings(userId, bookingIds, approved);
+        log.info("Пакетное {} бронирований владельцем с id: {}, количество: {}",
+                approved ? "подтверждение" : "отклонение", userId, results.size());
+        return results;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDtoResponse getBookingById(@RequestHeader(X_SHARER_USER_ID) int userId,
                                              @PathVariable int bookingId) {
         BookingDtoResponse bookingResponse = bookingService.getBookingById(userId, bookingId);
-        log.info("Получены данные о бронировании: {}", bookingResponse);
+        log.info("Получены данные о бронировании с id: {}", bookingId);
+        log.debug("Получены данные о бронировании: {}", bookingResponse);
         return bookingResponse;
     }
 
     @GetMapping
     public List<BookingDtoResponse> getBookingsByBooker(@RequestHeader(X_SHARER_USER_ID) int userId,
-                                                        @RequestParam(defaultValue = "ALL") State state) {
-        List<BookingDtoResponse> bookingResponses = bookingService.getBookingsByBooker(userId, state);
-        log.info("Получен список всех бронирований пользователя c id: {}, со статусом - {} : {}",
-                userId, state, bookingResponses);
+                                                         @RequestParam(defaultValue = "ALL") State state,
+                                                         @RequestParam(required = false) Integer itemId,
+                                                         @RequestParam(required = false)
+                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                         LocalDateTime rangeStart,
+                                                         @RequestParam(required = false)
+                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                         LocalDateTime rangeEnd,
+                                                         @RequestParam(defaultValue = "0") int from,
+                                                         @RequestParam(defaultValue = "10") int size) {
+        List<BookingDtoResponse> bookingResponses = bookingService.getBookings(BookingQuery.forBooker(userId)
+                .state(state)
+                .itemId(itemId)
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .from(from)
+                .size(size)
+                .build());
+        log.info("Получен список всех бронирований пользователя c id: {}, со статусом - {}, количество: {}",
+                userId, state, bookingResponses.size());
+        log.debug("Бронирования пользователя c id: {}: {}", userId, bookingResponses);
         return bookingResponses;
     }
 
     @GetMapping("/owner")
     public List<BookingDtoResponse> getBookingsByOwner(@RequestHeader(X_SHARER_USER_ID) int userId,
-                                                       @RequestParam(defaultValue = "ALL") State state) {
-        List<BookingDtoResponse> bookingResponses = bookingService.getBookingsByOwner(userId, state);
-        log.info("Получен список бронирований владельца c id: {}, со статусом - {}: {}", userId, state, bookingResponses);
+                                                        @RequestParam(defaultValue = "ALL") State state,
+                                                        @RequestParam(required = false) Integer itemId,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime rangeStart,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime rangeEnd,
+                                                        @RequestParam(defaultValue = "0") int from,
+                                                        @RequestParam(defaultValue = "10") int size) {
+        List<BookingDtoResponse> bookingResponses = bookingService.getBookings(BookingQuery.forOwner(userId)
+                .state(state)
+                .itemId(itemId)
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .from(from)
+                .size(size)
+                .build());
+        log.info("Получен список бронирований владельца c id: {}, со статусом - {}, количество: {}",
+                userId, state, bookingResponses.size());
+        log.debug("Бронирования владельца c id: {}: {}", userId, bookingResponses);
+        return bookingResponses;
+    }
+
+    // Компактные списки строятся только из booking_views: вещь передается как {id, name}, арендатор как {id}.
+    @GetMapping("/compact")
+    public List<BookingDtoForList> getCompactBookingsByBooker(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                               @RequestParam(defaultValue = "ALL") State state,
+                                                               @RequestParam(required = false) Integer itemId,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                               LocalDateTime rangeStart,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                               LocalDateTime rangeEnd,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "10") int size) {
+        List<BookingDtoForList> bookingResponses = bookingService.getCompactBookings(BookingQuery.forBooker(userId)
+                .state(state)
+                .itemId(itemId)
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .from(from)
+                .size(size)
+                .build());
+        log.info("Получен компактный список бронирований пользователя c id: {}, со статусом - {}, количество: {}",
+                userId, state, bookingResponses.size());
         return bookingResponses;
     }
-}
\ No newline at end of file
+
+    @GetMapping("/owner/compact")
+    public List<BookingDtoForList> getCompactBookingsByOwner(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                              @RequestParam(defaultValue = "ALL") State state,
+                                                              @RequestParam(required = false) Integer itemId,
+                                                              @RequestParam(required = false)
+                                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                              LocalDateTime rangeStart,
+                                                              @RequestParam(required = false)
+                                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                              LocalDateTime rangeEnd,
+                                                              @RequestParam(defaultValue = "0") int from,
+                                                              @RequestParam(defaultValue = "10") int size) {
+        List<BookingDtoForList> bookingResponses = bookingService.getCompactBookings(BookingQuery.forOwner(userId)
+                .state(state)
+                .itemId(itemId)
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .from(from)
+                .size(size)
+                .build());
+        log.info("Получен компактный список бронирований владельца c id: {}, со статусом - {}, количество: {}",
+                userId, state, bookingResponses.size());
+        return bookingResponses;
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingsByOwner(@RequestHeader(X_SHARER_USER_ID) int userId) {
+        log.info("Владелец с id: {} подписался на изменения бронирований", userId);
+        return ownerBookingStream.subscribe(userId);
+    }
+}
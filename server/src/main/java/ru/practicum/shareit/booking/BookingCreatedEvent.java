@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public record BookingCreatedEvent(int bookingId, LocalDateTime start, LocalDateTime end) {
+}
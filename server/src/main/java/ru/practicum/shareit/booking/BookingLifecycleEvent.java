@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие жизненного цикла бронирования: подтвержденное бронирование началось или закончилось,
+ * либо неподтвержденное истекло, потому что наступила дата начала.
+ */
+public record BookingLifecycleEvent(int bookingId, int itemId, int ownerId, int bookerId, Type type,
+                                    LocalDateTime time) {
+
+    public enum Type {
+        STARTED,
+        ENDED,
+        EXPIRED
+    }
+}
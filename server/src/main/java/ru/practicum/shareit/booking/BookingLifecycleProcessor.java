@@ -0,0 +1,265 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Переводит бронирования по времени: истекает неподтвержденные, у которых наступила дата начала,
+ * и рассылает {@link BookingLifecycleEvent} о начале и окончании подтвержденных.
+ * <p>
+ * В памяти хранятся только переходы ближайшего окна horizon, упорядоченные по времени.
+ * Окно дозагружается запросами по индексам на start_date и end_date витрины пачками по batchSize,
+ * когда до его конца остается меньше половины, а бронирования, созданные внутри уже загруженного окна,
+ * добавляются по {@link BookingCreatedEvent}. При первом запуске все просроченные
+ * неподтвержденные бронирования истекают пачками.
+ */
+@Slf4j
+public class BookingLifecycleProcessor {
+
+    private static final List<BookingStatus> SCHEDULED_STATUSES = List.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final BookingStateCache bookingStateCache;
+    private final BookingMapper bookingMapper;
+    private final OutboxWriter outboxWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Duration horizon;
+    private final int batchSize;
+
+    // Упорядочены по времени; одинаковые переходы из запроса и из события не дублируются.
+    private final NavigableSet<Transition> queue = new TreeSet<>(Comparator.comparing(Transition::time)
+            .thenComparing(Transition::bookingId)
+            .thenComparing(Transition::kind));
+    private LocalDateTime scheduledUntil;
+
+    public BookingLifecycleProcessor(BookingRepository bookingRepository,
+                                     BookingViewRepository bookingViewRepository,
+                                     BookingStateCache bookingStateCache,
+                                     BookingMapper bookingMapper,
+                                     OutboxWriter outboxWriter,
+                                     ApplicationEventPublisher eventPublisher,
+                                     TransactionTemplate transactionTemplate,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     Duration horizon, int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingViewRepository = bookingViewRepository;
+        this.bookingStateCache = bookingStateCache;
+        this.bookingMapper = bookingMapper;
+        this.outboxWriter = outboxWriter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.lifecycle.tick:PT1S}")
+    public void tick() {
+        process(LocalDateTime.now());
+    }
+
+    void process(LocalDateTime now) {
+        LocalDateTime from;
+        synchronized (queue) {
+            from = scheduledUntil;
+        }
+        if (from == null) {
+            expireOverdue(now);
+            from = now;
+        }
+        if (from.isBefore(now.plus(horizon.dividedBy(2)))) {
+            load(from, now.plus(horizon));
+        }
+
+        List<Transition> due = new ArrayList<>();
+        synchronized (queue) {
+            while (!queue.isEmpty() && !queue.first().time().isAfter(now)) {
+                due.add(queue.pollFirst());
+            }
+        }
+        for (int i = 0; i < due.size(); i += batchSize) {
+            List<Transition> batch = due.subList(i, Math.min(due.size(), i + batchSize));
+            transactionTemplate.executeWithoutResult(status -> fire(batch, now));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBookingCreated(BookingCreatedEvent event) {
+        synchronized (queue) {
+            if (scheduledUntil == null) {
+                return;
+            }
+            if (event.start().isBefore(scheduledUntil)) {
+                queue.add(new Transition(event.start(), event.bookingId(), Transition.Kind.START));
+            }
+            if (event.end().isBefore(scheduledUntil)) {
+                queue.add(new Transition(event.end(), event.bookingId(), Transition.Kind.END));
+            }
+        }
+    }
+
+    private void load(LocalDateTime from, LocalDateTime to) {
+        // Граница сдвигается до запроса, чтобы бронирования, созданные во время загрузки, попали в очередь.
+        synchronized (queue) {
+            scheduledUntil = to;
+        }
+        List<BookingSlot> starts = loadAll(from, BookingSlot::start, (afterTime, afterId) ->
+                bookingViewRepository.findSlotsStartingAfter(afterTime, afterId, to, SCHEDULED_STATUSES,
+                        PageRequest.of(0, batchSize)));
+        List<BookingSlot> ends = loadAll(from, BookingSlot::end, (afterTime, afterId) ->
+                bookingViewRepository.findSlotsEndingAfter(afterTime, afterId, to, SCHEDULED_STATUSES,
+                        PageRequest.of(0, batchSize)));
+
+        synchronized (queue) {
+            for (BookingSlot slot : starts) {
+                queue.add(new Transition(slot.start(), slot.bookingId(), Transition.Kind.START));
+            }
+            for (BookingSlot slot : ends) {
+                queue.add(new Transition(slot.end(), slot.bookingId(), Transition.Kind.END));
+            }
+        }
+        log.debug("Загружены переходы бронирований до {}: начал - {}, окончаний - {}", to,
+                starts.size(), ends.size());
+    }
+
+    /**
+     * Читает окно пачками по batchSize, продолжая с последней пары (время, id) предыдущей пачки.
+     */
+    private List<BookingSlot> loadAll(LocalDateTime from, Function<BookingSlot, LocalDateTime> time,
+                                      BiFunction<LocalDateTime, Integer, List<BookingSlot>> page) {
+        List<BookingSlot> slots = new ArrayList<>();
+        LocalDateTime afterTime = from;
+        int afterId = Integer.MIN_VALUE;
+        while (true) {
+            List<BookingSlot> batch = page.apply(afterTime, afterId);
+            slots.addAll(batch);
+            if (batch.size() < batchSize) {
+                return slots;
+            }
+            afterTime = time.apply(batch.getLast());
+            afterId = batch.getLast().bookingId();
+        }
+    }
+
+    private void expireOverdue(LocalDateTime now) {
+        int total = 0;
+        while (true) {
+            int expired = transactionTemplate.execute(status -> {
+                List<Integer> ids = bookingViewRepository.findWaitingIdsStartedBefore(now,
+                        PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<BookingLifecycleEvent> events = new ArrayList<>();
+                expire(bookingViewRepository.findSlotsByIdIn(ids), now, events);
+                events.forEach(eventPublisher::publishEvent);
+                return events.size();
+            });
+            if (expired == 0) {
+                break;
+            }
+            total += expired;
+        }
+        if (total > 0) {
+            log.info("Истекло просроченных неподтвержденных бронирований: {}", total);
+        }
+    }
+
+    private void fire(List<Transition> transitions, LocalDateTime now) {
+        // Статус перечитывается: с момента загрузки бронирование могли подтвердить или отклонить.
+        // Проекция, а не сущность, чтобы не получить устаревший статус из контекста.
+        Map<Integer, BookingSlot> slots = bookingViewRepository.findSlotsByIdIn(transitions.stream()
+                        .map(Transition::bookingId)
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(BookingSlot::bookingId, Function.identity()));
+
+        List<BookingSlot> waiting = new ArrayList<>();
+        List<BookingLifecycleEvent> events = new ArrayList<>();
+        for (Transition transition : transitions) {
+            BookingSlot slot = slots.get(transition.bookingId());
+            if (slot == null) {
+                continue;
+            }
+            if (transition.kind() == Transition.Kind.START && slot.status() == BookingStatus.WAITING) {
+                waiting.add(slot);
+            } else if (slot.status() == BookingStatus.APPROVED) {
+                events.add(toEvent(slot, transition.kind() == Transition.Kind.START
+                        ? BookingLifecycleEvent.Type.STARTED
+                        : BookingLifecycleEvent.Type.ENDED, transition.time()));
+            }
+        }
+        if (!waiting.isEmpty()) {
+            expire(waiting, now, events);
+        }
+
+        events.forEach(eventPublisher::publishEvent);
+        log.info("Обработано переходов бронирований: {}, событий: {}", transitions.size(), events.size());
+    }
+
+    private void expire(List<BookingSlot> slots, LocalDateTime now, List<BookingLifecycleEvent> events) {
+        List<Integer> ids = slots.stream().map(BookingSlot::bookingId).toList();
+        bookingRepository.expireWaiting(ids, now);
+        bookingViewRepository.expireWaiting(ids);
+        // Бронирование, которое владелец успел подтвердить или отклонить, UPDATE не изменил:
+        // события публикуются только для действительно истекших.
+        List<Booking> expired = bookingRepository.findAllByIdInWithItemsAndOwners(ids).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.EXPIRED)
+                .toList();
+        expired.forEach(booking -> outboxWriter.append(AggregateType.BOOKING, booking.getId(), ChangeType.UPDATED,
+                bookingMapper.toBookingDto(booking)));
+
+        Set<Integer> expiredIds = expired.stream().map(Booking::getId).collect(Collectors.toSet());
+        List<BookingSlot> expiredSlots = slots.stream()
+                .filter(slot -> expiredIds.contains(slot.bookingId()))
+                .toList();
+        expiredSlots.stream()
+                .collect(Collectors.groupingBy(BookingSlot::ownerId,
+                        Collectors.mapping(BookingSlot::bookerId, Collectors.toSet())))
+                .forEach((ownerId, bookerIds) -> bookingStateCache.invalidate(bookerIds, ownerId));
+        expiredSlots.forEach(slot -> events.add(toEvent(slot, BookingLifecycleEvent.Type.EXPIRED, slot.start())));
+    }
+
+    private BookingLifecycleEvent toEvent(BookingSlot slot, BookingLifecycleEvent.Type type, LocalDateTime time) {
+        meterRegistry.ifAvailable(registry -> registry.counter("shareit.bookings.transitions",
+                "type", type.name()).increment());
+        return new BookingLifecycleEvent(slot.bookingId(), slot.itemId(), slot.ownerId(), slot.bookerId(), type,
+                time);
+    }
+
+    private record Transition(LocalDateTime time, int bookingId, Kind kind) {
+
+        private enum Kind {
+            START,
+            END
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.BookingPartitionProperties;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживает помесячные секции таблицы bookings в PostgreSQL.
+ * Заранее создает секции на monthsAhead месяцев вперед, переносит в них строки, попавшие
+ * в секцию по умолчанию, и отсоединяет секции старше archiveAfterMonths месяцев в архивную схему.
+ * Каждый шаг выполняется в своей транзакции под advisory-блокировкой, поэтому несколько
+ * экземпляров сервера не мешают друг другу.
+ */
+@Slf4j
+public class BookingPartitionManager {
+
+    static final long LOCK_KEY = 0x5348415245495401L;
+    private static final Pattern PARTITION_NAME = Pattern.compile("bookings_y(\\d{4})m(\\d{2})");
+    private static final Pattern SCHEMA_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingPartitionProperties properties;
+
+    public BookingPartitionManager(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   BookingPartitionProperties properties) {
+        if (!SCHEMA_NAME.matcher(properties.getArchiveSchema()).matches()) {
+            throw new IllegalArgumentException("Некорректное имя архивной схемы: " + properties.getArchiveSchema());
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.bookings.partitioning.cron:0 0 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        YearMonth archiveBefore = current.minusMonths(properties.getArchiveAfterMonths());
+
+        TreeSet<YearMonth> months = new TreeSet<>(findMonthsInDefaultPartition());
+        for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+            months.add(current.plusMonths(i));
+        }
+        for (YearMonth month : months) {
+            inLock(() -> createPartition(month));
+        }
+
+        for (String partition : findPartitions()) {
+            YearMonth month = toMonth(partition);
+            if (month != null && month.isBefore(archiveBefore)) {
+                inLock(() -> archivePartition(partition));
+            }
+        }
+    }
+
+    private List<YearMonth> findMonthsInDefaultPartition() {
+        return jdbcTemplate.queryForList(
+                        "SELECT DISTINCT date_trunc('month', start_date) FROM bookings_default", Timestamp.class)
+                .stream()
+                .map(timestamp -> YearMonth.from(timestamp.toLocalDateTime()))
+                .toList();
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits AS i
+                JOIN pg_class AS c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'bookings'::regclass
+                ORDER BY c.relname
+                """, String.class);
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = toPartitionName(month);
+        if (exists(partition)) {
+            return;
+        }
+
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        // Пока строки переносятся, новые бронирования этого месяца не должны попасть в секцию по умолчанию.
+        jdbcTemplate.execute("LOCK TABLE bookings_default IN SHARE ROW EXCLUSIVE MODE");
+        // Без INCLUDING DEFAULTS: id выдает родительская таблица, а секция в архиве
+        // не должна зависеть от ее последовательности.
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE bookings INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("INSERT INTO " + partition
+                + " SELECT * FROM bookings_default WHERE start_date >= ? AND start_date < ?", from, to);
+        jdbcTemplate.update("DELETE FROM bookings_default WHERE start_date >= ? AND start_date < ?", from, to);
+        jdbcTemplate.execute("ALTER TABLE bookings ATTACH PARTITION " + partition
+                + " FOR VALUES FROM ('" + from.toLocalDateTime() + "') TO ('" + to.toLocalDateTime() + "')");
+
+        log.info("Создана секция бронирований {}, перенесено строк: {}", partition, moved);
+    }
+
+    /**
+     * Отсоединяет секцию от bookings и переносит ее в архивную схему. Бронирования из архива
+     * больше не видны приложению, поэтому их строки удаляются и из витрины booking_views.
+     */
+    private void archivePartition(String partition) {
+        if (!exists(partition)) {
+            return;
+        }
+        String schema = properties.getArchiveSchema();
+
+        int views = jdbcTemplate.update("DELETE FROM booking_views WHERE booking_id IN (SELECT id FROM "
+                + partition + ")");
+        jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + partition);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + schema);
+
+        log.info("Секция бронирований {} перенесена в схему {}, удалено строк витрины: {}",
+                partition, schema, views);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL",
+                Boolean.class, table));
+    }
+
+    private void inLock(Runnable action) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                    Boolean.class, LOCK_KEY);
+            if (Boolean.TRUE.equals(locked)) {
+                action.run();
+            } else {
+                log.debug("Секции бронирований обслуживает другой экземпляр сервера");
+            }
+        });
+    }
+
+    private static String toPartitionName(YearMonth month) {
+        return String.format("bookings_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static YearMonth toMonth(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+}
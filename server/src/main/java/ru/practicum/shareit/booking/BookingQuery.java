@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры выборки бронирований для списков арендатора и владельца.
+ * Необязательные itemId, rangeStart и rangeEnd сужают выборку до одной вещи и до бронирований,
+ * пересекающихся с заданным интервалом. Страница по умолчанию - DEFAULT_SIZE строк, больше MAX_SIZE
+ * за один запрос не выдается.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingQuery {
+    public static final int DEFAULT_SIZE = 10;
+    public static final int MAX_SIZE = 100;
+
+    private final BookingRole role;
+    private final int userId;
+    @Builder.Default
+    private final State state = State.ALL;
+    private final Integer itemId;
+    private final LocalDateTime rangeStart;
+    private final LocalDateTime rangeEnd;
+    @Builder.Default
+    private final int from = 0;
+    @Builder.Default
+    private final int size = DEFAULT_SIZE;
+
+    public static BookingQueryBuilder forBooker(int bookerId) {
+        return builder().role(BookingRole.BOOKER).userId(bookerId);
+    }
+
+    public static BookingQueryBuilder forOwner(int ownerId) {
+        return builder().role(BookingRole.OWNER).userId(ownerId);
+    }
+}
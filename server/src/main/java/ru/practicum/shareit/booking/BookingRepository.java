@@ -1,68 +1,90 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
-    //Получение списка всех бронирований пользователя:
-    // ALL.
-    List<Booking> findAllBookingsByBookerIdOrderByStartDesc(int bookerId);
+    // Право оставить отзыв: подтвержденное и завершившееся бронирование вещи этим пользователем.
+    // Условие на start избыточно (start < end), но отсекает будущие секции таблицы.
+    boolean existsByItemIdAndBookerIdAndStatusAndStartBeforeAndEndBefore(int itemId, int bookerId,
+                                                                         BookingStatus status,
+                                                                         LocalDateTime startBefore,
+                                                                         LocalDateTime endBefore);
 
-    // CURRENT.
-    @Query("""
-            SELECT b
-            FROM Booking AS b
-            WHERE b.booker.id = :bookerId
-            AND b.start <= :time
-            AND b.end >= :time
-            """)
-    List<Booking> findAllCurrentBookingsByBookerId(int bookerId, LocalDateTime time);
-
-    // PAST.
-    List<Booking> findAllBookingsByBookerIdAndEndBeforeOrderByStartDesc(int bookerId, LocalDateTime time);
+    // Последнее и следующее бронирования вещей владельца.
+    List<Booking> findAllBookingsByItemUserIdAndStartBeforeAndEndBeforeOrderByStartDesc(int ownerId,
+                                                                                      LocalDateTime startBefore,
+                                                                                      LocalDateTime endBefore);
 
-    // FUTURE.
-    List<Booking> findAllBookingsByBookerIdAndStartAfterOrderByStartDesc(int bookerId, LocalDateTime time);
-
-    // WAITING.
-    // REJECTED.
-    List<Booking> findAllBookingsByBookerIdAndStatusOrderByStartDesc(int bookerId, BookingStatus status);
-
-    //Получение списка всех бронирований владельца:
-    // ALL.
-    List<Booking> findAllBookingsByItemIdInOrderByStartDesc(Set<Integer> itemIds);
+    List<Booking> findAllBookingsByItemUserIdAndStartAfterOrderByStartDesc(int ownerId, LocalDateTime time);
 
-    // CURRENT.
     @Query("""
             SELECT b
-            FROM Booking AS b
+            FROM Booking b
+            JOIN FETCH b.item
+            JOIN FETCH b.booker
             WHERE b.item.user.id = :ownerId
-            AND b.start <= :time
-            AND b.end >= :time
             """)
-    List<Booking> findAllCurrentBookingsByOwnerId(int ownerId, LocalDateTime time);
-
-    // PAST.
-    List<Booking> findAllBookingsByItemUserIdAndEndBeforeOrderByStartDesc(int ownerId, LocalDateTime time);
-
-    // FUTURE.
-    List<Booking> findAllBookingsByItemUserIdAndStartAfterOrderByStartDesc(int ownerId, LocalDateTime time);
+    List<Booking> findAllBookingsByOwnerWithItemsAndBookers(int ownerId);
 
-    // WAITING.
-    // REJECTED.
-    List<Booking> findAllBookingsByItemUserIdAndStatusOrderByStartDesc(int ownerId, BookingStatus status);
+    @Query("""
+            SELECT b
+            FROM Booking b
+            JOIN FETCH b.item AS i
+            JOIN FETCH i.user
+            JOIN FETCH b.booker
+            WHERE b.id IN :bookingIds
+            """)
+    List<Booking> findAllByIdInWithItemsAndOwners(Collection<Integer> bookingIds);
 
     @Query("""
             SELECT b
             FROM Booking b
-            JOIN FETCH b.item
+            JOIN FETCH b.item AS i
+            JOIN FETCH i.user
             JOIN FETCH b.booker
-            WHERE b.item.user.id = :ownerId
+            WHERE b.id IN :bookingIds
+            AND b.start BETWEEN :from AND :to
             """)
-    List<Booking> findAllBookingsByOwnerWithItemsAndBookers(int ownerId);
-}
\ No newline at end of file
+    List<Booking> findAllByIdInAndStartBetweenWithItemsAndOwners(Collection<Integer> bookingIds,
+                                                                 LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("""
+            DELETE FROM Booking AS b
+            WHERE b.id IN :bookingIds
+            AND b.start BETWEEN :from AND :to
+            """)
+    int deleteAllByIdInAndStartBetween(Collection<Integer> bookingIds, LocalDateTime from, LocalDateTime to);
+
+    // Условие на start отсекает секции таблицы с будущими бронированиями. Контекст очищается,
+    // чтобы следом прочитанные бронирования получили новый статус.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Booking AS b
+            SET b.status = ru.practicum.shareit.booking.BookingStatus.EXPIRED
+            WHERE b.id IN :bookingIds
+            AND b.status = ru.practicum.shareit.booking.BookingStatus.WAITING
+            AND b.start <= :time
+            """)
+    int expireWaiting(Collection<Integer> bookingIds, LocalDateTime time);
+
+    // Решение владельца записывается условным UPDATE: бронирование, которое уже подтверждено, истекло
+    // или началось, не перезаписывается, даже если его статус изменился после проверки в сервисе.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Booking AS b
+            SET b.status = :status
+            WHERE b.id IN :bookingIds
+            AND b.status IN (ru.practicum.shareit.booking.BookingStatus.WAITING,
+                ru.practicum.shareit.booking.BookingStatus.REJECTED)
+            AND b.start > :time
+            """)
+    int updateDecision(Collection<Integer> bookingIds, BookingStatus status, LocalDateTime time);
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForList;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 
@@ -15,9 +17,12 @@ public interface BookingService {
     @Transactional
     BookingDtoResponse approvedBooking(int userId, int bookingId, boolean approved);
 
+    @Transactional
+    List<BookingApprovalResultDto> approvedBookings(int userId, List<Integer> bookingIds, boolean approved);
+
     BookingDtoResponse getBookingById(int userId, int bookingId);
 
-    List<BookingDtoResponse> getBookingsByBooker(int userId, State state);
+    List<BookingDtoResponse> getBookings(BookingQuery query);
 
-    List<BookingDtoResponse> getBookingsByOwner(int userId, State state);
+    List<BookingDtoForList> getCompactBookings(BookingQuery query);
 }
\ No newline at end of file
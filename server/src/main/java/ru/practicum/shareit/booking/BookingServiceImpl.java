@@ -2,31 +2,52 @@ package ru.practicum.shareit.booking;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.OffsetPageRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForList;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeType;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_BATCH_SIZE = 1000;
 
     private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingMapper bookingMapper;
+    private final BookingStateCache bookingStateCache;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
 
     @Override
     public BookingDtoResponse createBooking(int userId, BookingDtoRequest bookingDtoRequest) {
@@ -55,31 +76,90 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Дата окончания бронирования раньше даты начала бронирования");
         }
 
-        Booking booking = bookingMapper.toBooking(bookingDtoRequest, booker, item);
-        return bookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking booking = bookingRepository.save(bookingMapper.toBooking(bookingDtoRequest, booker, item));
+        bookingViewRepository.save(bookingMapper.toBookingView(booking));
+        bookingStateCache.invalidate(List.of(userId), item.getUser().getId());
+        eventPublisher.publishEvent(new BookingCreatedEvent(booking.getId(), booking.getStart(), booking.getEnd()));
+
+        BookingDtoResponse bookingResponse = bookingMapper.toBookingDto(booking);
+        outboxWriter.append(AggregateType.BOOKING, booking.getId(), ChangeType.CREATED, bookingResponse);
+        return bookingResponse;
     }
 
     @Override
     public BookingDtoResponse approvedBooking(int userId, int bookingId, boolean approved) {
+        LocalDateTime now = LocalDateTime.now();
         Booking booking = getBooking(bookingId);
-        final int itemId = booking.getItem().getId();
-        Item item = getItem(itemId);
-        final int ownerId = item.getUser().getId();
 
-        if (ownerId != userId) {
-            throw new ValidationException("У " + item.getUser().getName() +
-                    " - не найден предмет: " + item.getName() + "!");
+        String error = checkApproval(userId, booking, now);
+        if (error != null) {
+            throw new ValidationException(error);
         }
 
-        if (booking.getStatus().equals(BookingStatus.APPROVED)) {
-            log.warn("Вещь уже имеет статус: {}", booking.getStatus());
-            throw new ValidationException("Вещь уже имеет статус: " + booking.getStatus());
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Booking approvedBooking = decide(List.of(bookingId), status, now, userId).stream()
+                .findFirst()
+                .orElseThrow(() -> new ValidationException(decisionConflict(bookingId)));
+
+        BookingDtoResponse bookingResponse = bookingMapper.toBookingDto(approvedBooking);
+        outboxWriter.append(AggregateType.BOOKING, bookingId, ChangeType.UPDATED, bookingResponse);
+        return bookingResponse;
+    }
+
+    @Override
+    public List<BookingApprovalResultDto> approvedBookings(int userId, List<Integer> bookingIds, boolean approved) {
+        if (bookingIds.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Пакет не может содержать больше " + MAX_BATCH_SIZE + " бронирований");
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking approvedBooking = bookingRepository.save(booking);
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Booking> bookings = bookingRepository.findAllByIdInWithItemsAndOwners(new HashSet<>(bookingIds))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        List<BookingApprovalResultDto> results = new ArrayList<>(bookingIds.size());
+        List<Integer> allowedIds = new ArrayList<>();
+        Set<Integer> seenIds = new HashSet<>();
+
+        for (Integer bookingId : bookingIds) {
+            BookingApprovalResultDto result = BookingApprovalResultDto.builder().bookingId(bookingId).build();
+            results.add(result);
+
+            // Результаты идут в порядке запроса, поэтому повтор получает свою ошибку и не обрабатывается второй раз.
+            Booking booking = bookings.get(bookingId);
+            String error;
+            if (!seenIds.add(bookingId)) {
+                error = "Бронирование с id - " + bookingId + " уже указано в пакете";
+            } else if (booking == null) {
+                error = "Бронирование с id - " + bookingId + " не найдено";
+            } else {
+                error = checkApproval(userId, booking, now);
+            }
+
+            if (error != null) {
+                result.setError(error);
+                continue;
+            }
+
+            allowedIds.add(bookingId);
+            result.setStatus(status);
+        }
 
-        return bookingMapper.toBookingDto(approvedBooking);
+        List<Booking> changedBookings = allowedIds.isEmpty() ? List.of() : decide(allowedIds, status, now, userId);
+        Set<Integer> changedIds = changedBookings.stream().map(Booking::getId).collect(Collectors.toSet());
+        results.stream()
+                .filter(result -> result.getStatus() != null && !changedIds.contains(result.getBookingId()))
+                .forEach(result -> {
+                    result.setStatus(null);
+                    result.setError(decisionConflict(result.getBookingId()));
+                });
+
+        changedBookings.forEach(booking -> outboxWriter.append(AggregateType.BOOKING, booking.getId(),
+                ChangeType.UPDATED, bookingMapper.toBookingDto(booking)));
+        log.info("Пользователь с id {} изменил статус {} из {} бронирований на {}",
+                userId, changedBookings.size(), bookingIds.size(), status);
+        return results;
     }
 
     @Override
@@ -103,91 +183,133 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDtoResponse> getBookingsByBooker(int bookerId, State state) {
-        getUser(bookerId);
-        List<Booking> bookingDtoResponses = List.of();
+    public List<BookingDtoResponse> getBookings(BookingQuery query) {
+        return getBookingsInOrder(findViews(query));
+    }
 
-        log.info("Запрос бронирований пользователя (ID: {}). Статус: {}", bookerId, state);
+    @Override
+    public List<BookingDtoForList> getCompactBookings(BookingQuery query) {
+        return findViews(query).stream()
+                .map(bookingMapper::toBookingDtoForList)
+                .toList();
+    }
 
-        switch (state) {
-            case ALL -> {
-                bookingDtoResponses = bookingRepository.findAllBookingsByBookerIdOrderByStartDesc(bookerId);
-            }
-            case CURRENT -> {
-                bookingDtoResponses = bookingRepository.findAllCurrentBookingsByBookerId(bookerId, LocalDateTime.now());
-            }
-            case PAST -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByBookerIdAndEndBeforeOrderByStartDesc(bookerId, LocalDateTime.now());
-            }
-            case FUTURE -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByBookerIdAndStartAfterOrderByStartDesc(bookerId, LocalDateTime.now());
-            }
-            case WAITING -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.WAITING);
-            }
-            case REJECTED -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.REJECTED);
-            }
+    private List<BookingView> findViews(BookingQuery query) {
+        if (query.getFrom() < 0 || query.getSize() <= 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным, а size должен быть больше 0");
         }
+        if (query.getSize() > BookingQuery.MAX_SIZE) {
+            throw new ValidationException("Параметр size не может быть больше " + BookingQuery.MAX_SIZE);
+        }
+        if (query.getRangeStart() != null && query.getRangeEnd() != null
+                && query.getRangeStart().isAfter(query.getRangeEnd())) {
+            throw new ValidationException("Начало интервала не может быть позже его окончания");
+        }
+        getUser(query.getUserId());
+
+        log.info("Запрос бронирований: {}", query);
 
-        return bookingDtoResponses.stream()
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingView> views = bookingStateCache.findBookings(query, now);
+        if (views == null) {
+            views = bookingViewRepository.findList(BookingViewSpecifications.matching(query, now),
+                    OffsetPageRequest.of(query.getFrom(), query.getSize(),
+                            Sort.by(Sort.Direction.DESC, "start", "bookingId")));
+        }
+        return views;
+    }
+
+    /**
+     * Догружает страницу бронирований (не больше BookingQuery.MAX_SIZE) вместе с вещами и пользователями
+     * одним запросом, сохраняя порядок витрины. Диапазон дат начала из витрины позволяет PostgreSQL
+     * не читать секции таблицы бронирований вне этого диапазона.
+     */
+    private List<BookingDtoResponse> getBookingsInOrder(List<BookingView> views) {
+        if (views.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> bookingIds = new ArrayList<>(views.size());
+        LocalDateTime from = views.getFirst().getStart();
+        LocalDateTime to = from;
+        for (BookingView view : views) {
+            bookingIds.add(view.getBookingId());
+            from = view.getStart().isBefore(from) ? view.getStart() : from;
+            to = view.getStart().isAfter(to) ? view.getStart() : to;
+        }
+
+        // Даты в закэшированных строках могут быть точнее, чем в базе, поэтому границы расширены до целых секунд.
+        Map<Integer, Booking> bookings = bookingRepository
+                .findAllByIdInAndStartBetweenWithItemsAndOwners(bookingIds, from.truncatedTo(ChronoUnit.SECONDS),
+                        to.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1)).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        return bookingIds.stream()
+                .map(bookings::get)
+                .filter(Objects::nonNull)
                 .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+                .toList();
     }
 
-    @Override
-    public List<BookingDtoResponse> getBookingsByOwner(int ownerId, State state) {
-        getUser(ownerId);
+    /**
+     * Записывает решение владельца только для бронирований, которые все еще его ждут, и возвращает
+     * перечитанные из базы бронирования, получившие новый статус. Бронирование, которое после проверки
+     * истекло или получило решение в другом запросе, в результат не попадает.
+     */
+    private List<Booking> decide(List<Integer> bookingIds, BookingStatus status, LocalDateTime now, int ownerId) {
+        bookingRepository.updateDecision(bookingIds, status, now);
+        bookingViewRepository.updateDecision(bookingIds, status, now);
+
+        List<Booking> changedBookings = bookingRepository.findAllByIdInWithItemsAndOwners(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == status)
+                .toList();
+        if (!changedBookings.isEmpty()) {
+            bookingStateCache.invalidate(changedBookings.stream().map(booking -> booking.getBooker().getId()).toList(),
+                    ownerId);
+            itemAvailabilityIndex.invalidate(changedBookings.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .toList());
+        }
+        return changedBookings;
+    }
 
-        Set<Integer> itemIds = itemRepository.findAllItemsByUserIdOrderByIdAsc(ownerId).stream()
-                .map(Item::getId)
-                .collect(Collectors.toSet());
-        List<Booking> bookingDtoResponses = List.of();
+    private String decisionConflict(int bookingId) {
+        log.warn("Статус бронирования с id {} изменился до записи решения", bookingId);
+        return "Статус бронирования с id - " + bookingId + " уже изменился, решение не записано";
+    }
 
-        log.info("Запрос бронирований владельца (ID: {}). Статус: {}", ownerId, state);
+    private String checkApproval(int userId, Booking booking, LocalDateTime now) {
+        Item item = booking.getItem();
 
-        switch (state) {
-            case ALL -> {
-                bookingDtoResponses = bookingRepository.findAllBookingsByItemIdInOrderByStartDesc(itemIds);
-            }
-            case CURRENT -> {
-                bookingDtoResponses = bookingRepository.findAllCurrentBookingsByOwnerId(ownerId, LocalDateTime.now());
-            }
-            case PAST -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByItemUserIdAndEndBeforeOrderByStartDesc(ownerId, LocalDateTime.now());
-            }
-            case FUTURE -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByItemUserIdAndStartAfterOrderByStartDesc(ownerId, LocalDateTime.now());
-            }
-            case WAITING -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByItemUserIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING);
+        if (item.getUser().getId() != userId) {
+            return "У " + item.getUser().getName() + " - не найден предмет: " + item.getName() + "!";
+        }
 
-            }
-            case REJECTED -> {
-                bookingDtoResponses = bookingRepository
-                        .findAllBookingsByItemUserIdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED);
-            }
+        if (booking.getStatus().equals(BookingStatus.APPROVED)) {
+            log.warn("Вещь уже имеет статус: {}", booking.getStatus());
+            return "Вещь уже имеет статус: " + booking.getStatus();
         }
 
-        return bookingDtoResponses.stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        if (booking.getStatus().equals(BookingStatus.EXPIRED)) {
+            log.warn("Бронирование с id {} истекло", booking.getId());
+            return "Бронирование с id - " + booking.getId() + " истекло: дата начала уже наступила";
+        }
+
+        if (!booking.getStart().isAfter(now)) {
+            log.warn("Бронирование с id {} уже началось", booking.getId());
+            return "Бронирование с id - " + booking.getId() + " уже началось: решение по нему принять нельзя";
+        }
+        return null;
     }
 
     private User getUser(int userId) {
-        return userRepository.findById(userId)
+        return userRepository.findByIdAndDeletedFalse(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id - " + userId + " не найден"));
     }
 
+    // Вещи удаленного владельца остаются в базе до фонового удаления, но бронировать их уже нельзя.
     private Item getItem(int itemId) {
         return itemRepository.findById(itemId)
+                .filter(item -> !item.getUser().isDeleted())
                 .orElseThrow(() -> new NotFoundException("Вещь с id - " + itemId + " не найдена"));
     }
 
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка витрины, нужная для разложения бронирований по состояниям и для переходов по времени.
+ * Читается проекцией, а не сущностью, чтобы не получить из контекста устаревший статус
+ * после массового UPDATE витрины.
+ */
+public record BookingSlot(Integer bookingId, Integer ownerId, Integer bookerId, Integer itemId, String itemName,
+                          LocalDateTime start, LocalDateTime end, BookingStatus status) {
+}
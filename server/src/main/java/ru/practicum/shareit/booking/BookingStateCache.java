@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.config.PrimaryDatabaseReader;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Кэш списков бронирований арендатора и владельца, разложенных по состояниям.
+ * CURRENT, PAST и FUTURE зависят от текущего времени, поэтому для каждого пользователя хранится
+ * ближайший момент, когда какое-либо бронирование начнется или закончится. До этого момента
+ * разложение остается верным, после него пересчитывается из уже загруженных бронирований без запроса в базу.
+ * Запись сбрасывается при создании и подтверждении бронирований пользователя.
+ * Списки загружаются из основной базы: отставшая реплика оставила бы в кэше устаревшие данные
+ * на все время жизни записи.
+ */
+@Component
+public class BookingStateCache {
+
+    // Пользователи с большим числом бронирований читают из базы постранично.
+    private static final Buckets TOO_LARGE = new Buckets(List.of());
+
+    private final BookingViewRepository bookingViewRepository;
+    private final PrimaryDatabaseReader primaryDatabaseReader;
+    private final Cache<Key, Buckets> cache;
+    private final int maxBookingsPerUser;
+
+    public BookingStateCache(BookingViewRepository bookingViewRepository,
+                             PrimaryDatabaseReader primaryDatabaseReader,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${shareit.bookings.state-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${shareit.bookings.state-cache.expire-after-write:10m}")
+                             Duration expireAfterWrite,
+                             @Value("${shareit.bookings.state-cache.max-bookings-per-user:1000}")
+                             int maxBookingsPerUser) {
+        this.bookingViewRepository = bookingViewRepository;
+        this.primaryDatabaseReader = primaryDatabaseReader;
+        this.maxBookingsPerUser = maxBookingsPerUser;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "bookingStates"));
+    }
+
+    /**
+     * Возвращает страницу бронирований из кэша или null, если запрос кэшем не обслуживается:
+     * задан фильтр по вещи или интервалу либо у пользователя слишком много бронирований.
+     */
+    public List<BookingView> findBookings(BookingQuery query, LocalDateTime now) {
+        if (query.getItemId() != null || query.getRangeStart() != null || query.getRangeEnd() != null) {
+            return null;
+        }
+        Buckets buckets = cache.get(new Key(query.getRole(), query.getUserId()), this::load);
+        if (buckets == TOO_LARGE) {
+            return null;
+        }
+
+        List<BookingView> bookings = buckets.get(query.getState(), now);
+        int offset = query.getFrom();
+        if (offset >= bookings.size()) {
+            return List.of();
+        }
+        return bookings.subList(offset, (int) Math.min(bookings.size(), (long) offset + query.getSize()));
+    }
+
+    /**
+     * Сбрасывает записи арендатора и владельца сразу и еще раз по завершении транзакции,
+     * чтобы в кэше не остались данные, прочитанные до коммита или отката изменений.
+     */
+    public void invalidate(Collection<Integer> bookerIds, int ownerId) {
+        Set<Key> keys = new HashSet<>();
+        bookerIds.forEach(bookerId -> keys.add(new Key(BookingRole.BOOKER, bookerId)));
+        keys.add(new Key(BookingRole.OWNER, ownerId));
+        cache.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(keys);
+                }
+            });
+        }
+    }
+
+    private Buckets load(Key key) {
+        Pageable limit = PageRequest.of(0, maxBookingsPerUser + 1);
+        List<BookingSlot> slots = primaryDatabaseReader.read(() -> switch (key.role()) {
+            case BOOKER -> bookingViewRepository.findSlotsByBookerId(key.userId(), limit);
+            case OWNER -> bookingViewRepository.findSlotsByOwnerId(key.userId(), limit);
+        });
+        if (slots.size() > maxBookingsPerUser) {
+            return TOO_LARGE;
+        }
+        return new Buckets(slots.stream()
+                .map(slot -> BookingView.builder()
+                        .bookingId(slot.bookingId())
+                        .ownerId(slot.ownerId())
+                        .bookerId(slot.bookerId())
+                        .itemId(slot.itemId())
+                        .itemName(slot.itemName())
+                        .start(slot.start())
+                        .end(slot.end())
+                        .status(slot.status())
+                        .build())
+                .toList());
+    }
+
+    private record Key(BookingRole role, int userId) {
+    }
+
+    private static final class Buckets {
+        // Отсортированы по дате начала, от поздних к ранним.
+        private final List<BookingView> bookings;
+        private final Map<State, List<BookingView>> byState = new EnumMap<>(State.class);
+        private LocalDateTime validUntil;
+
+        private Buckets(List<BookingView> bookings) {
+            this.bookings = bookings;
+            byState.put(State.ALL, bookings);
+            byState.put(State.WAITING, withStatus(BookingStatus.WAITING));
+            byState.put(State.REJECTED, withStatus(BookingStatus.REJECTED));
+        }
+
+        private synchronized List<BookingView> get(State state, LocalDateTime now) {
+            if (validUntil == null || !now.isBefore(validUntil)) {
+                promote(now);
+            }
+            return byState.get(state);
+        }
+
+        private void promote(LocalDateTime now) {
+            List<BookingView> current = new ArrayList<>();
+            List<BookingView> past = new ArrayList<>();
+            List<BookingView> future = new ArrayList<>();
+            LocalDateTime next = LocalDateTime.MAX;
+
+            for (BookingView booking : bookings) {
+                if (booking.getStart().isAfter(now)) {
+                    future.add(booking);
+                    next = min(next, booking.getStart());
+                } else if (booking.getEnd().isBefore(now)) {
+                    past.add(booking);
+                } else {
+                    current.add(booking);
+                    // Бронирование становится прошедшим сразу после даты окончания.
+                    next = min(next, booking.getEnd().plusNanos(1));
+                }
+            }
+
+            byState.put(State.CURRENT, current);
+            byState.put(State.PAST, past);
+            byState.put(State.FUTURE, future);
+            validUntil = next;
+        }
+
+        private List<BookingView> withStatus(BookingStatus status) {
+            return bookings.stream()
+                    .filter(booking -> booking.getStatus() == status)
+                    .toList();
+        }
+
+        private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+            return first.isBefore(second) ? first : second;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Денормализованная копия бронирования для списков владельца и арендатора.
+ * Обновляется в той же транзакции, что и само бронирование.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "booking_views")
+public class BookingView {
+
+    @Id
+    @Column(name = "booking_id")
+    private Integer bookingId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id")
+    @ToString.Exclude
+    private Booking booking;
+
+    @Column(name = "owner_id")
+    private Integer ownerId;
+
+    @Column(name = "booker_id")
+    private Integer bookerId;
+
+    @Column(name = "item_id")
+    private Integer itemId;
+
+    @Column(name = "item_name")
+    private String itemName;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    @Column(name = "end_date")
+    private LocalDateTime end;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Выборка из витрины по спецификации без подсчета общего числа строк:
+ * findAll(spec, pageable) возвращает Page и ради него выполняет лишний COUNT.
+ */
+public interface BookingViewQueries {
+
+    List<BookingView> findList(Specification<BookingView> spec, Pageable pageable);
+}
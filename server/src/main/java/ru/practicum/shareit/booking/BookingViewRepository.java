@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingViewRepository extends JpaRepository<BookingView, Integer>,
+        JpaSpecificationExecutor<BookingView>, BookingViewQueries {
+
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.BookingSlot(v.bookingId, v.ownerId, v.bookerId, v.itemId,
+                   v.itemName, v.start, v.end, v.status)
+            FROM BookingView AS v
+            WHERE v.bookerId = :bookerId
+            ORDER BY v.start DESC, v.bookingId DESC
+            """)
+    List<BookingSlot> findSlotsByBookerId(int bookerId, Pageable pageable);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.BookingSlot(v.bookingId, v.ownerId, v.bookerId, v.itemId,
+                   v.itemName, v.start, v.end, v.status)
+            FROM BookingView AS v
+            WHERE v.ownerId = :ownerId
+            ORDER BY v.start DESC, v.bookingId DESC
+            """)
+    List<BookingSlot> findSlotsByOwnerId(int ownerId, Pageable pageable);
+
+    // Бронирования вещей, созданных в ответ на запросы пользователя: они удаляются вместе с его запросами.
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.BookingSlot(v.bookingId, v.ownerId, v.bookerId, v.itemId,
+                   v.itemName, v.start, v.end, v.status)
+            FROM BookingView AS v
+            WHERE v.itemId IN (SELECT i.id
+                               FROM Item AS i
+                               WHERE i.itemRequest.requester.id = :requesterId)
+            """)
+    List<BookingSlot> findSlotsByItemRequesterId(int requesterId, Pageable pageable);
+
+    // Ближайшие начала и окончания бронирований для обработчика жизненного цикла.
+    // Страницы идут по ключу (время, id): строки с одинаковым временем не теряются на границе страницы.
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.BookingSlot(v.bookingId, v.ownerId, v.bookerId, v.itemId,
+                   v.itemName, v.start, v.end, v.status)
+            FROM BookingView AS v
+            WHERE v.start >= :afterTime
+            AND (v.start > :afterTime OR v.bookingId > :afterId)
+            AND v.start < :to
+            AND v.status IN :statuses
+            ORDER BY v.start, v.bookingId
+            """)
+    List<BookingSlot> findSlotsStartingAfter(LocalDateTime afterTime, int afterId, LocalDateTime to,
+                                             Collection<BookingStatus> statuses, Pageable pageable);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.BookingSlot(v.bookingId, v.ownerId, v.bookerId, v.itemId,
+                   v.itemName, v.start, v.end, v.status)
+            FROM BookingView AS v
+            WHERE v.end >= :afterTime
+            AND (v.end > :afterTime OR v.bookingId > :afterId)
+            AND v.end < :to
+            AND v.status IN :statuses
+            ORDER BY v.end, v.bookingId
+            """)
+    List<BookingSlot> findSlotsEndingAfter(LocalDateTime afterTime, int afterId, LocalDateTime to,
+                                           Collection<BookingStatus> statuses, Pageable pageable);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.BookingSlot(v.bookingId, v.ownerId, v.bookerId, v.itemId,
+                   v.itemName, v.start, v.end, v.status)
+            FROM BookingView AS v
+            WHERE v.bookingId IN :bookingIds
+            """)
+    List<BookingSlot> findSlotsByIdIn(Collection<Integer> bookingIds);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.BookingSlot(v.bookingId, v.ownerId, v.bookerId, v.itemId,
+                   v.itemName, v.start, v.end, v.status)
+            FROM BookingView AS v
+            WHERE v.itemId IN :itemIds
+            AND v.status = :status
+            AND v.end > :now
+            ORDER BY v.itemId, v.start
+            """)
+    List<BookingSlot> findSlotsByItemIdInAndStatusAndEndAfter(Collection<Integer> itemIds, BookingStatus status,
+                                                              LocalDateTime now);
+
+    @Query("""
+            SELECT v.bookingId
+            FROM BookingView AS v
+            WHERE v.status = ru.practicum.shareit.booking.BookingStatus.WAITING
+            AND v.start <= :time
+            """)
+    List<Integer> findWaitingIdsStartedBefore(LocalDateTime time, Pageable pageable);
+
+    // То же условие, что и в BookingRepository.updateDecision.
+    @Modifying
+    @Query("""
+            UPDATE BookingView AS v
+            SET v.status = :status
+            WHERE v.bookingId IN :bookingIds
+            AND v.status IN (ru.practicum.shareit.booking.BookingStatus.WAITING,
+                ru.practicum.shareit.booking.BookingStatus.REJECTED)
+            AND v.start > :time
+            """)
+    void updateDecision(Collection<Integer> bookingIds, BookingStatus status, LocalDateTime time);
+
+    @Modifying
+    @Query("""
+            UPDATE BookingView AS v
+            SET v.itemName = :itemName
+            WHERE v.itemId = :itemId
+            """)
+    void updateItemName(int itemId, String itemName);
+
+    @Query("""
+            SELECT DISTINCT v.bookerId
+            FROM BookingView AS v
+            WHERE v.itemId = :itemId
+            """)
+    List<Integer> findBookerIdsByItemId(int itemId);
+
+    @Modifying
+    @Query("""
+            UPDATE BookingView AS v
+            SET v.status = ru.practicum.shareit.booking.BookingStatus.EXPIRED
+            WHERE v.bookingId IN :bookingIds
+            AND v.status = ru.practicum.shareit.booking.BookingStatus.WAITING
+            """)
+    void expireWaiting(Collection<Integer> bookingIds);
+}
@@ -0,0 +1,198 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeEvent;
+import ru.practicum.shareit.outbox.ChangeEventConsumer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылает владельцам по SSE новые бронирования их вещей и изменения статусов.
+ * События приходят из outbox_events через {@link ChangeEventConsumer} на каждом экземпляре сервера:
+ * владелец подключен только к одному из них.
+ * <p>
+ * Неактивное подключение не занимает поток: асинхронный запрос держит только SseEmitter
+ * и небольшую очередь. Отправка идет в виртуальных потоках, по одному на подписчика, пока его
+ * очередь не опустеет. Если клиент не успевает читать и очередь переполнилась, она сбрасывается
+ * и клиент получает событие resync: список бронирований нужно перечитать через REST.
+ */
+@Slf4j
+@Component
+public class OwnerBookingStream implements ChangeEventConsumer {
+
+    private static final String BOOKING_EVENT = "booking";
+    private static final String RESYNC_EVENT = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final int bufferSize;
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OwnerBookingStream(ObjectMapper objectMapper,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${shareit.bookings.stream.timeout:30m}") Duration timeout,
+                              @Value("${shareit.bookings.stream.buffer-size:100}") int bufferSize) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        meterRegistry.ifAvailable(registry -> registry.gauge("shareit.bookings.stream.subscribers",
+                subscriberCount));
+    }
+
+    public SseEmitter subscribe(int ownerId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        register(ownerId, emitter);
+        return emitter;
+    }
+
+    void register(int ownerId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(ownerId, emitter);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unregister(subscriber));
+
+        subscribers.computeIfAbsent(ownerId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        // Комментарий сразу отправляет заголовки ответа, и клиент узнает, что подписка активна.
+        subscriber.offer(SseEmitter.event().comment("subscribed"));
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (event.aggregateType() != AggregateType.BOOKING) {
+                continue;
+            }
+            Set<Subscriber> owners = subscribers.get(findOwnerId(event));
+            if (owners == null) {
+                continue;
+            }
+            SseEmitter.SseEventBuilder message = SseEmitter.event()
+                    .id(String.valueOf(event.id()))
+                    .name(BOOKING_EVENT)
+                    .data(event.payload());
+            owners.forEach(subscriber -> subscriber.offer(message));
+        }
+    }
+
+    @Override
+    public boolean perInstance() {
+        return true;
+    }
+
+    // Периодический комментарий не дает прокси закрыть неактивное соединение и выявляет отключившихся клиентов.
+    @Scheduled(fixedDelayString = "${shareit.bookings.stream.heartbeat:PT30S}")
+    public void heartbeat() {
+        subscribers.values().forEach(owners -> owners.forEach(subscriber ->
+                subscriber.offerIfIdle(SseEmitter.event().comment("ping"))));
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.values().forEach(owners -> owners.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdown();
+    }
+
+    int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private int findOwnerId(ChangeEvent event) {
+        try {
+            JsonNode payload = objectMapper.readTree(event.payload());
+            return payload.path("item").path("user").path("id").asInt();
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось прочитать событие бронирования с id {}: {}", event.id(), e.getOriginalMessage());
+            return 0;
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.ownerId, (ownerId, owners) -> {
+            if (owners.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return owners.isEmpty() ? null : owners;
+        });
+    }
+
+    private final class Subscriber {
+        private final int ownerId;
+        private final SseEmitter emitter;
+        private final Deque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private boolean sending;
+
+        private Subscriber(int ownerId, SseEmitter emitter) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(SseEmitter.SseEventBuilder message) {
+            if (buffer.size() >= bufferSize) {
+                log.debug("Очередь подписчика владельца с id {} переполнена, отправляется resync", ownerId);
+                buffer.clear();
+                buffer.add(SseEmitter.event().name(RESYNC_EVENT).data(""));
+            } else {
+                buffer.add(message);
+            }
+            if (!sending) {
+                sending = true;
+                sender.execute(this::send);
+            }
+        }
+
+        private synchronized void offerIfIdle(SseEmitter.SseEventBuilder message) {
+            if (!sending && buffer.isEmpty()) {
+                offer(message);
+            }
+        }
+
+        private void send() {
+            while (true) {
+                SseEmitter.SseEventBuilder message;
+                synchronized (this) {
+                    message = buffer.poll();
+                    if (message == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(message);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Подписчик владельца с id {} отключился: {}", ownerId, e.getMessage());
+                    synchronized (this) {
+                        buffer.clear();
+                        sending = false;
+                    }
+                    // Об обрыве соединения контейнер сообщит сам, завершать emitter здесь нельзя.
+                    unregister(this);
+                    return;
+                }
+            }
+        }
+    }
+}
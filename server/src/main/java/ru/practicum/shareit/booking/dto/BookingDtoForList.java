@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Компактный элемент списков бронирований владельца и арендатора (GET /bookings/compact и
+ * GET /bookings/owner/compact). Содержит только то, что хранится в booking_views, поэтому список
+ * строится без обращения к бронированиям, вещам и пользователям.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDtoForList {
+
+    private Integer id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BookingStatus status;
+    private ItemShort item;
+    private BookerShort booker;
+
+    public record ItemShort(int id, String name) {
+    }
+
+    public record BookerShort(int id) {
+    }
+}
@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking.dto;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingSlot;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
@@ -20,6 +22,33 @@ public class BookingMapper {
                 .build();
     }
 
+    // Событие об удалении: сущностей уже нет, поэтому вещь, владелец и арендатор передаются только с id.
+    public BookingDtoResponse toDeletedBookingDto(BookingSlot slot) {
+        return BookingDtoResponse.builder()
+                .id(slot.bookingId())
+                .start(slot.start())
+                .end(slot.end())
+                .item(Item.builder()
+                        .id(slot.itemId())
+                        .name(slot.itemName())
+                        .user(userRef(slot.ownerId()))
+                        .build())
+                .booker(userRef(slot.bookerId()))
+                .status(slot.status())
+                .build();
+    }
+
+    public BookingDtoForList toBookingDtoForList(BookingView view) {
+        return BookingDtoForList.builder()
+                .id(view.getBookingId())
+                .start(view.getStart())
+                .end(view.getEnd())
+                .status(view.getStatus())
+                .item(new BookingDtoForList.ItemShort(view.getItemId(), view.getItemName()))
+                .booker(new BookingDtoForList.BookerShort(view.getBookerId()))
+                .build();
+    }
+
     public Booking toBooking(BookingDtoRequest bookingDtoRequest, User booker, Item item) {
         Booking booking = new Booking();
         booking.setStart(bookingDtoRequest.getStart());
@@ -30,6 +59,19 @@ public class BookingMapper {
         return booking;
     }
 
+    public BookingView toBookingView(Booking booking) {
+        return BookingView.builder()
+                .booking(booking)
+                .ownerId(booking.getItem().getUser().getId())
+                .bookerId(booking.getBooker().getId())
+                .itemId(booking.getItem().getId())
+                .itemName(booking.getItem().getName())
+                .status(booking.getStatus())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+    }
+
     public BookingDtoForItem toItemBookingDto(Booking booking) {
         BookingDtoForItem bookingDtoForItem = new BookingDtoForItem();
         bookingDtoForItem.setId(booking.getId());
@@ -41,4 +83,10 @@ public class BookingMapper {
         }
         return bookingDtoForItem;
     }
-}
\ No newline at end of file
+
+    private static User userRef(int userId) {
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+}
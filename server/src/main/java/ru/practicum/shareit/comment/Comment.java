@@ -22,10 +22,12 @@ public class Comment {
     private String text;
 
     @ManyToOne
+    @ToString.Exclude
     @JoinColumn(name = "item_id")
     private Item item;
 
     @ManyToOne
+    @ToString.Exclude
     @JoinColumn(name = "author_id")
     private User author;
     private LocalDateTime created = LocalDateTime.now();
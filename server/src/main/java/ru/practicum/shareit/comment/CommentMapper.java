@@ -10,6 +10,10 @@ import java.time.format.DateTimeFormatter;
 @Component
 public class CommentMapper {
 
+    private static final DateTimeFormatter CREATED_FORMATTER = DateTimeFormatter
+            .ofPattern("dd.MM.yyyy HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
     public Comment dtoToComment(CommentDtoRequest commentDtoRequest, Item item, User user) {
         Comment comment = new Comment();
         comment.setText(commentDtoRequest.getText());
@@ -19,17 +23,11 @@ public class CommentMapper {
     }
 
     public CommentDtoResponse commentToDtoResponse(Comment comment) {
-
-        String createdDate = DateTimeFormatter
-                .ofPattern("dd.MM.yyyy HH:mm:ss")
-                .withZone(ZoneOffset.UTC)
-                .format(comment.getCreated());
-
         return CommentDtoResponse.builder()
                 .id(comment.getId())
                 .authorName(comment.getAuthor().getName())
                 .text(comment.getText())
-                .created(createdDate)
+                .created(CREATED_FORMATTER.format(comment.getCreated()))
                 .build();
     }
 }
\ No newline at end of file
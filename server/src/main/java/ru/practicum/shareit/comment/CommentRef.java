@@ -0,0 +1,7 @@
+package ru.practicum.shareit.comment;
+
+/**
+ * Комментарий и его вещь: по вещам удаленных комментариев пересчитывается их сводка.
+ */
+public record CommentRef(Integer id, Integer itemId) {
+}
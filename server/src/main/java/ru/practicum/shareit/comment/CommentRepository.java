@@ -1,13 +1,41 @@
 package ru.practicum.shareit.comment;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
-    List<Comment> getAllCommentsByItemId(int itemId);
+    @Query("""
+            SELECT c
+            FROM Comment AS c
+            JOIN FETCH c.author
+            WHERE c.item.id = :itemId
+            ORDER BY c.created DESC, c.id DESC
+            """)
+    List<Comment> findAllByItemIdWithAuthors(int itemId, Pageable pageable);
+
+    @Query(value = """
+            SELECT ranked.id
+            FROM (SELECT c.id,
+                         ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn
+                  FROM comments AS c
+                  WHERE c.item_id IN (:itemIds)) AS ranked
+            WHERE ranked.rn <= :limit
+            """, nativeQuery = true)
+    List<Integer> findLatestCommentIdsByItemIds(Collection<Integer> itemIds, int limit);
+
+    @Query("""
+            SELECT c
+            FROM Comment AS c
+            JOIN FETCH c.author
+            WHERE c.id IN :ids
+            ORDER BY c.created DESC, c.id DESC
+            """)
+    List<Comment> findAllByIdWithAuthors(Collection<Integer> ids);
 
     @Query("""
             SELECT c
@@ -17,4 +45,29 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
             WHERE c.item.user.id = :ownerId
             """)
     List<Comment> findAllCommentsByOwnerWithItemsAndAuthors(int ownerId);
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new ru.practicum.shareit.comment.CommentRef(c.id, c.item.id)
+            FROM Comment AS c
+            WHERE c.author.id = :authorId
+            """)
+    List<CommentRef> findRefsByAuthorId(int authorId, Pageable pageable);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.comment.CommentRef(c.id, c.item.id)
+            FROM Comment AS c
+            WHERE c.item.id IN (SELECT i.id
+                                FROM Item AS i
+                                WHERE i.user.id = :ownerId)
+            """)
+    List<CommentRef> findRefsByItemOwnerId(int ownerId, Pageable pageable);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.comment.CommentRef(c.id, c.item.id)
+            FROM Comment AS c
+            WHERE c.item.id IN (SELECT i.id
+                                FROM Item AS i
+                                WHERE i.itemRequest.requester.id = :requesterId)
+            """)
+    List<CommentRef> findRefsByItemRequesterId(int requesterId, Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.comment;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка по комментариям вещи, обновляется при каждом новом комментарии,
+ * чтобы чтение вещи не зависело от числа ее комментариев.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "item_comment_stats")
+public class ItemCommentStats {
+
+    @Id
+    @Column(name = "item_id")
+    private Integer itemId;
+
+    @Column(name = "comment_count")
+    private long commentCount;
+
+    @Column(name = "last_comment_at")
+    private LocalDateTime lastCommentAt;
+}
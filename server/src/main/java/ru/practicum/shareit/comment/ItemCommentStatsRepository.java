@@ -0,0 +1,38 @@
+package ru.practicum.shareit.comment;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ItemCommentStatsRepository extends JpaRepository<ItemCommentStats, Integer> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO item_comment_stats (item_id, comment_count)
+            SELECT i.id, 0
+            FROM items AS i
+            WHERE i.id IN (:itemIds)
+            """, nativeQuery = true)
+    void createForItems(Collection<Integer> itemIds);
+
+    @Modifying
+    @Query("""
+            UPDATE ItemCommentStats AS s
+            SET s.commentCount = s.commentCount + 1,
+                s.lastCommentAt = :created
+            WHERE s.itemId = :itemId
+            """)
+    int incrementCommentCount(int itemId, LocalDateTime created);
+
+    @Modifying
+    @Query(value = """
+            UPDATE item_comment_stats AS s
+            SET comment_count   = (SELECT COUNT(c.id) FROM comments AS c WHERE c.item_id = s.item_id),
+                last_comment_at = (SELECT MAX(c.created) FROM comments AS c WHERE c.item_id = s.item_id)
+            WHERE s.item_id IN (:itemIds)
+            """, nativeQuery = true)
+    void recountForItems(Collection<Integer> itemIds);
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingLifecycleProcessor;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStateCache;
+import ru.practicum.shareit.booking.BookingViewRepository;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.outbox.OutboxWriter;
+
+/**
+ * Обработчик переводит бронирования по времени и рассылает события о начале и окончании.
+ * Рассчитан на один работающий экземпляр: при нескольких события могут продублироваться.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingLifecycleProperties.class)
+@ConditionalOnProperty(prefix = "shareit.bookings.lifecycle", name = "enabled", havingValue = "true")
+public class BookingLifecycleConfig {
+
+    @Bean
+    public BookingLifecycleProcessor bookingLifecycleProcessor(BookingRepository bookingRepository,
+                                                               BookingViewRepository bookingViewRepository,
+                                                               BookingStateCache bookingStateCache,
+                                                               BookingMapper bookingMapper,
+                                                               OutboxWriter outboxWriter,
+                                                               ApplicationEventPublisher eventPublisher,
+                                                               PlatformTransactionManager transactionManager,
+                                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                                               BookingLifecycleProperties properties) {
+        return new BookingLifecycleProcessor(bookingRepository, bookingViewRepository, bookingStateCache,
+                bookingMapper, outboxWriter, eventPublisher, new TransactionTemplate(transactionManager), meterRegistry,
+                properties.getHorizon(), properties.getBatchSize());
+    }
+}
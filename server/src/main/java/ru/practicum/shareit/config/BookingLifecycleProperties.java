@@ -0,0 +1,16 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.lifecycle")
+public class BookingLifecycleProperties {
+    private boolean enabled;
+    private Duration horizon = Duration.ofMinutes(10);
+    private int batchSize = 1000;
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingPartitionManager;
+
+/**
+ * Включается только для PostgreSQL, где таблица бронирований секционирована по start_date
+ * (schema-bookings-postgresql.sql). В H2 таблица обычная, и обслуживать нечего.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingPartitionProperties.class)
+@ConditionalOnProperty(prefix = "shareit.bookings.partitioning", name = "enabled", havingValue = "true")
+public class BookingPartitionConfig {
+
+    @Bean
+    public BookingPartitionManager bookingPartitionManager(JdbcTemplate jdbcTemplate,
+                                                           PlatformTransactionManager transactionManager,
+                                                           BookingPartitionProperties properties) {
+        return new BookingPartitionManager(jdbcTemplate, new TransactionTemplate(transactionManager), properties);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.bookings.partitioning")
+public class BookingPartitionProperties {
+    private boolean enabled;
+    private int monthsAhead = 3;
+    private int archiveAfterMonths = 24;
+    private String archiveSchema = "archive";
+    private String cron = "0 0 3 * * *";
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import java.time.Duration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new StateTagObservationConvention();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatisticsInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingSessionListener.class.getName());
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlMetricsFilter> sqlMetricsFilter(
+            MeterRegistry registry,
+            @Value("${shareit.metrics.slow-request-threshold:500ms}") Duration slowRequestThreshold) {
+        return new FilterRegistrationBean<>(new SqlMetricsFilter(registry, slowRequestThreshold));
+    }
+}
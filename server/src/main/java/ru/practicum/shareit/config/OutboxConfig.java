@@ -0,0 +1,38 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.ChangeEventConsumer;
+import ru.practicum.shareit.outbox.OutboxCursorRepository;
+import ru.practicum.shareit.outbox.OutboxEventRepository;
+import ru.practicum.shareit.outbox.OutboxRelay;
+
+/**
+ * Ретранслятор событий из outbox_events. События пишутся всегда, а без ретранслятора
+ * копятся в таблице до его включения.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = "shareit.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository,
+                                   OutboxCursorRepository outboxCursorRepository,
+                                   ObjectProvider<ChangeEventConsumer> consumers,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   OutboxProperties properties) {
+        return new OutboxRelay(outboxEventRepository, outboxCursorRepository, consumers,
+                new TransactionTemplate(transactionManager), meterRegistry, properties.getBatchSize(),
+                properties.getGapDetection(), properties.getGapTimeout(), properties.getRetention());
+    }
+}
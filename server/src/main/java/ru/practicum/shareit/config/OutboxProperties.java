@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.practicum.shareit.outbox.OutboxGapDetection;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.outbox")
+public class OutboxProperties {
+    private boolean enabled;
+    private int batchSize = 500;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private OutboxGapDetection gapDetection = OutboxGapDetection.SNAPSHOT;
+    private Duration gapTimeout = Duration.ofSeconds(10);
+    private Duration retention = Duration.ofHours(1);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Выполняет чтение на основной базе. Нужен кэшам: загруженное из отставшей реплики
+ * осталось бы в кэше на все время жизни записи.
+ */
+@Component
+public class PrimaryDatabaseReader {
+
+    private final TransactionTemplate primaryTransaction;
+
+    public PrimaryDatabaseReader(PlatformTransactionManager transactionManager) {
+        // Отдельная транзакция без readOnly получает соединение с основной базой,
+        // даже если вызывающая транзакция читает из реплики.
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T read(Supplier<T> query) {
+        // Транзакция на запись уже работает с основной базой и видит свои же изменения.
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return query.get();
+        }
+        return primaryTransaction.execute(status -> query.get());
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.Constants;
+
+import java.io.IOException;
+
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesTracker tracker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Integer userId = parseUserId(request.getHeader(Constants.X_SHARER_USER_ID));
+        tracker.setCurrentUser(userId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            tracker.clearCurrentUser();
+        }
+
+        if (userId != null && !isRead(request) && response.getStatus() < 400) {
+            tracker.recordWrite(userId);
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private static Integer parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Помнит пользователей, которые недавно что-то изменили.
+ * Пока не истекло окно, их чтения идут в основную базу, чтобы не увидеть отставшую реплику.
+ */
+public class ReadYourWritesTracker {
+
+    private final ThreadLocal<Integer> currentUser = new ThreadLocal<>();
+    private final Map<Integer, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void setCurrentUser(Integer userId) {
+        currentUser.set(userId);
+    }
+
+    public void clearCurrentUser() {
+        currentUser.remove();
+    }
+
+    public void recordWrite(int userId) {
+        lastWrites.put(userId, System.nanoTime());
+    }
+
+    public boolean isPrimaryRequired() {
+        Integer userId = currentUser.get();
+        if (userId == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(userId);
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.datasource.replica")
+public class ReplicaProperties {
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Оборачивает вызов метода репозитория в дочерний span текущего запроса.
+ * Вне трассируемого запроса (например, при старте приложения) span не создается.
+ */
+@RequiredArgsConstructor
+public class RepositoryTracingInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<Tracer> tracerProvider;
+    private final String repositoryName;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Tracer tracer = tracerProvider.getIfAvailable();
+        if (tracer == null || tracer.currentSpan() == null) {
+            return invocation.proceed();
+        }
+
+        Span span = tracer.nextSpan()
+                .name(repositoryName + "." + invocation.getMethod().getName())
+                .tag("repository", repositoryName)
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Публикует число SQL-запросов и время JDBC на каждый HTTP-запрос с тегами эндпоинта,
+ * а медленные запросы пишет в лог с разбивкой по выполненным statement-ам.
+ */
+@Slf4j
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private static final int TOP_STATEMENTS = 5;
+
+    private final MeterRegistry registry;
+    private final long slowRequestNanos;
+
+    public SqlMetricsFilter(MeterRegistry registry, Duration slowRequestThreshold) {
+        this.registry = registry;
+        this.slowRequestNanos = slowRequestThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.finish();
+            record(request, statistics, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics, long elapsedNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("shareit.sql.statements")
+                .description("Число SQL-запросов на один HTTP-запрос")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(statistics.getStatements());
+        Timer.builder("shareit.sql.jdbc.time")
+                .description("Время выполнения SQL на один HTTP-запрос")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (elapsedNanos >= slowRequestNanos) {
+            log.warn("Медленный запрос {} {}: {} мс, SQL-запросов: {} {}, время JDBC: {} мс, чаще всего:{}",
+                    request.getMethod(), uri, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    statistics.getStatements(), statistics.getCountsByType(),
+                    TimeUnit.NANOSECONDS.toMillis(statistics.getJdbcNanos()),
+                    statistics.topStatements(TOP_STATEMENTS));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.config;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Статистика SQL в рамках одного HTTP-запроса.
+ * Hibernate создает слушатели сам, поэтому статистика привязана к потоку запроса, а не к бину.
+ */
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+    private static final int MAX_STATEMENT_LENGTH = 200;
+
+    public enum Type { SELECT, INSERT, UPDATE, DELETE, OTHER }
+
+    private final Map<Type, Integer> countsByType = new EnumMap<>(Type.class);
+    private final Map<String, Integer> countsByStatement = new HashMap<>();
+    private int statements;
+    private long jdbcNanos;
+    private long executionStart;
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void finish() {
+        CURRENT.remove();
+    }
+
+    void onStatement(String sql) {
+        statements++;
+        countsByType.merge(typeOf(sql), 1, Integer::sum);
+        countsByStatement.merge(sql, 1, Integer::sum);
+    }
+
+    void onExecutionStart() {
+        executionStart = System.nanoTime();
+    }
+
+    void onExecutionEnd() {
+        if (executionStart != 0) {
+            jdbcNanos += System.nanoTime() - executionStart;
+            executionStart = 0;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public Map<Type, Integer> getCountsByType() {
+        return countsByType;
+    }
+
+    /**
+     * Самые часто повторяющиеся запросы - обычно именно так выглядит N+1.
+     */
+    public String topStatements(int limit) {
+        return countsByStatement.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(limit)
+                .map(entry -> entry.getValue() + " x " + abbreviate(entry.getKey()))
+                .collect(Collectors.joining("\n  ", "\n  ", ""));
+    }
+
+    private static Type typeOf(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        try {
+            return Type.valueOf(trimmed.substring(0, end).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Type.OTHER;
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        String singleLine = sql.replaceAll("\\s+", " ").trim();
+        return singleLine.length() <= MAX_STATEMENT_LENGTH
+                ? singleLine
+                : singleLine.substring(0, MAX_STATEMENT_LENGTH) + "...";
+    }
+}
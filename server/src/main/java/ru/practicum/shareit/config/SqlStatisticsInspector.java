@@ -0,0 +1,18 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает каждый подготовленный Hibernate запрос, не изменяя его.
+ */
+public class SqlStatisticsInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.onStatement(sql);
+        }
+        return sql;
+    }
+}
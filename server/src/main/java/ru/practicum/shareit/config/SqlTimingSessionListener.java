@@ -0,0 +1,36 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Замеряет время выполнения запросов драйвером.
+ * Подключается через hibernate.session.events.auto, Hibernate создает экземпляр на каждую сессию.
+ */
+public class SqlTimingSessionListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.onExecutionStart();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.onExecutionEnd();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import ru.practicum.shareit.booking.State;
+
+/**
+ * Добавляет к http.server.requests тег state, чтобы списки бронирований
+ * с разными фильтрами можно было сравнивать отдельно.
+ */
+public class StateTagObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private static final KeyValue STATE_NONE = KeyValue.of("state", "none");
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(state(context.getCarrier().getParameter("state")));
+    }
+
+    private static KeyValue state(String value) {
+        if (value == null) {
+            return STATE_NONE;
+        }
+        for (State state : State.values()) {
+            if (state.name().equals(value)) {
+                return KeyValue.of("state", state.name());
+            }
+        }
+        return KeyValue.of("state", "invalid");
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStateCache;
+import ru.practicum.shareit.booking.BookingViewRepository;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.comment.ItemCommentStatsRepository;
+import ru.practicum.shareit.item.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.RequestMatchRepository;
+import ru.practicum.shareit.user.UserDeletionProcessor;
+import ru.practicum.shareit.user.UserDeletionRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+/**
+ * Обработчик удаляет помеченных пользователей и их данные пачками. Без него пользователи
+ * только помечаются удаленными, а задания ждут в user_deletions.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(UserDeletionProperties.class)
+@ConditionalOnProperty(prefix = "shareit.users.deletion", name = "enabled", havingValue = "true")
+public class UserDeletionConfig {
+
+    @Bean
+    public UserDeletionProcessor userDeletionProcessor(UserDeletionRepository userDeletionRepository,
+                                                       UserRepository userRepository,
+                                                       BookingRepository bookingRepository,
+                                                       BookingViewRepository bookingViewRepository,
+                                                       BookingStateCache bookingStateCache,
+                                                       BookingMapper bookingMapper,
+                                                       CommentRepository commentRepository,
+                                                       ItemCommentStatsRepository itemCommentStatsRepository,
+                                                       ItemRepository itemRepository,
+                                                       ItemAvailabilityIndex itemAvailabilityIndex,
+                                                       ItemRequestRepository itemRequestRepository,
+                                                       RequestMatchRepository requestMatchRepository,
+                                                       OutboxWriter outboxWriter,
+                                                       PlatformTransactionManager transactionManager,
+                                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                                       UserDeletionProperties properties) {
+        return new UserDeletionProcessor(userDeletionRepository, userRepository, bookingRepository,
+                bookingViewRepository, bookingStateCache, bookingMapper, commentRepository,
+                itemCommentStatsRepository, itemRepository, itemAvailabilityIndex, itemRequestRepository,
+                requestMatchRepository, outboxWriter, new TransactionTemplate(transactionManager), meterRegistry, properties.getBatchSize());
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.users.deletion")
+public class UserDeletionProperties {
+    private boolean enabled;
+    private int batchSize = 1000;
+    private Duration tick = Duration.ofSeconds(1);
+}
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.ClientAbortException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 
 @Slf4j
 @RestControllerAdvice
@@ -37,4 +39,11 @@ public class ErrorHandler {
         log.error(e.getMessage());
         return new ErrorResponse("Неизвестная ошибка", e.getMessage());
     }
+
+    // Клиент закрыл соединение во время записи ответа, например подписку на поток событий;
+    // прочие ошибки ввода-вывода обрабатываются как обычные ошибки сервера.
+    @ExceptionHandler({AsyncRequestNotUsableException.class, ClientAbortException.class})
+    public void handleClientAbortException(final Exception e) {
+        log.debug("Клиент отключился: {}", e.getMessage());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Занятые интервалы одной вещи: подтвержденные бронирования, слитые в непересекающиеся
+ * отрезки и отсортированные по началу. Концы отрезков тоже возрастают, поэтому первый отрезок,
+ * который может пересечь запрошенный интервал, находится двоичным поиском.
+ */
+public final class BookedIntervals {
+
+    public static final BookedIntervals EMPTY = new BookedIntervals(new LocalDateTime[0], new LocalDateTime[0]);
+
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+
+    private BookedIntervals(LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static BookedIntervals of(List<Interval> intervals) {
+        if (intervals.isEmpty()) {
+            return EMPTY;
+        }
+        List<Interval> sorted = intervals.stream()
+                .sorted(Comparator.comparing(Interval::start))
+                .toList();
+
+        LocalDateTime[] starts = new LocalDateTime[sorted.size()];
+        LocalDateTime[] ends = new LocalDateTime[sorted.size()];
+        int size = 0;
+        for (Interval interval : sorted) {
+            if (size > 0 && !interval.start().isAfter(ends[size - 1])) {
+                if (interval.end().isAfter(ends[size - 1])) {
+                    ends[size - 1] = interval.end();
+                }
+            } else {
+                starts[size] = interval.start();
+                ends[size] = interval.end();
+                size++;
+            }
+        }
+        return new BookedIntervals(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    /**
+     * Свободна ли вещь весь интервал. Бронирование, которое заканчивается ровно в момент from
+     * или начинается ровно в момент to, интервалу не мешает.
+     */
+    public boolean isFree(LocalDateTime from, LocalDateTime to) {
+        int index = firstEndingAfter(from);
+        return index == ends.length || !starts[index].isBefore(to);
+    }
+
+    /**
+     * Занятые отрезки, пересекающиеся с интервалом, обрезанные по его границам.
+     */
+    public List<Interval> between(LocalDateTime from, LocalDateTime to) {
+        List<Interval> result = new ArrayList<>();
+        for (int i = firstEndingAfter(from); i < ends.length && starts[i].isBefore(to); i++) {
+            result.add(new Interval(starts[i].isBefore(from) ? from : starts[i],
+                    ends[i].isAfter(to) ? to : ends[i]));
+        }
+        return result;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    private int firstEndingAfter(LocalDateTime time) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle].isAfter(time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    public record Interval(LocalDateTime start, LocalDateTime end) {
+    }
+}
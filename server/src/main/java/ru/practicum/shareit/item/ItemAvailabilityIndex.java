@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingSlot;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingViewRepository;
+import ru.practicum.shareit.config.PrimaryDatabaseReader;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Занятые интервалы вещей по подтвержденным бронированиям. Интервалы вещей, которых нет в кэше,
+ * загружаются одним запросом к витрине booking_views, поэтому проверка доступности для списка
+ * вещей из поиска не делает запрос на каждую вещь. Запись вещи сбрасывается при изменении
+ * статуса ее бронирований.
+ * <p>
+ * Загружаются только бронирования, которые на момент загрузки еще не закончились: доступность
+ * проверяется перед новым бронированием, а прошедшие интервалы с ним не пересекаются.
+ */
+@Component
+public class ItemAvailabilityIndex {
+
+    private final BookingViewRepository bookingViewRepository;
+    private final PrimaryDatabaseReader primaryDatabaseReader;
+    private final Cache<Integer, BookedIntervals> cache;
+
+    public ItemAvailabilityIndex(BookingViewRepository bookingViewRepository,
+                                 PrimaryDatabaseReader primaryDatabaseReader,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${shareit.items.availability.maximum-size:100000}") long maximumSize,
+                                 @Value("${shareit.items.availability.expire-after-write:30m}")
+                                 Duration expireAfterWrite) {
+        this.bookingViewRepository = bookingViewRepository;
+        this.primaryDatabaseReader = primaryDatabaseReader;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "itemAvailability"));
+    }
+
+    public BookedIntervals get(int itemId) {
+        return getAll(List.of(itemId)).get(itemId);
+    }
+
+    public Map<Integer, BookedIntervals> getAll(Collection<Integer> itemIds) {
+        return cache.getAll(itemIds, this::load);
+    }
+
+    /**
+     * Сбрасывает записи вещей сразу и еще раз по завершении транзакции,
+     * чтобы в кэше не остались интервалы, прочитанные до коммита или отката изменений.
+     */
+    public void invalidate(Collection<Integer> itemIds) {
+        Set<Integer> keys = Set.copyOf(itemIds);
+        cache.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(keys);
+                }
+            });
+        }
+    }
+
+    private Map<Integer, BookedIntervals> load(Set<? extends Integer> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingSlot> slots = primaryDatabaseReader.read(() -> bookingViewRepository
+                .findSlotsByItemIdInAndStatusAndEndAfter(Set.copyOf(itemIds), BookingStatus.APPROVED, now));
+        Map<Integer, List<BookedIntervals.Interval>> intervals = slots.stream()
+                .collect(Collectors.groupingBy(BookingSlot::itemId, Collectors.mapping(
+                        slot -> new BookedIntervals.Interval(slot.start(), slot.end()), Collectors.toList())));
+
+        Map<Integer, BookedIntervals> result = new HashMap<>();
+        for (Integer itemId : itemIds) {
+            result.put(itemId, BookedIntervals.of(intervals.getOrDefault(itemId, List.of())));
+        }
+        return result;
+    }
+}
@@ -2,14 +2,18 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Constants;
 import ru.practicum.shareit.comment.CommentDtoRequest;
 import ru.practicum.shareit.comment.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -25,16 +29,26 @@ public class ItemController {
     public ItemDtoResponse createItem(@RequestHeader(X_SHARER_USER_ID) int userId,
                                       @RequestBody ItemDtoRequest itemRequest) {
         ItemDtoResponse createdItem = itemService.createItem(userId, itemRequest);
-        log.info("Добавлена новая вещь: {}", createdItem);
+        log.info("Пользователь с id: {} добавил вещь с id: {}", userId, createdItem.getId());
+        log.debug("Добавлена новая вещь: {}", createdItem);
         return createdItem;
     }
 
+    @PostMapping("/batch")
+    public List<ItemBatchResultDto> createItems(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                @RequestBody List<ItemDtoRequest> itemRequests) {
+        List<ItemBatchResultDto> results = itemService.createItems(userId, itemRequests);
+        log.info("Пакетное добавление вещей пользователем с id: {}, строк: {}", userId, results.size());
+        return results;
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDtoResponse updateItem(@RequestHeader(X_SHARER_USER_ID) int userId,
                                       @PathVariable int itemId,
                                       @RequestBody ItemDtoRequest itemRequest) {
         ItemDtoResponse itemResponse = itemService.updateItem(userId, itemId, itemRequest);
-        log.info("Обновленная вещь: {}", itemResponse);
+        log.info("Пользователь с id: {} обновил вещь с id: {}", userId, itemId);
+        log.debug("Обновленная вещь: {}", itemResponse);
         return itemResponse;
     }
 
@@ -42,7 +56,8 @@ public class ItemController {
     public ItemDto getItemById(@RequestHeader(X_SHARER_USER_ID) int userId,
                                @PathVariable int itemId) {
         ItemDto gettingItemDto = itemService.getItemById(userId, itemId);
-        log.info("Получена вещь: {}", gettingItemDto);
+        log.info("Получена вещь с id: {}", itemId);
+        log.debug("Получена вещь: {}", gettingItemDto);
         return gettingItemDto;
     }
 
@@ -54,9 +69,42 @@ public class ItemController {
 
     @GetMapping("/search")
     public List<ItemDtoResponse> searchItems(@RequestHeader(X_SHARER_USER_ID) int userId,
-                                             @RequestParam String text) {
-        log.info("Поиск вещи по тексту {}", text);
-        return itemService.searchItems(userId, text);
+                                             @RequestParam String text,
+                                             @RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                             LocalDateTime start,
+                                             @RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                             LocalDateTime end) {
+        log.info("Поиск вещи по тексту {}, свободной с {} по {}", text, start, end);
+        return itemService.searchItems(userId, text, start, end);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                               @PathVariable int itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        ItemAvailabilityDto availability = itemService.getAvailability(userId, itemId, from, to);
+        log.info("Получена доступность вещи с id: {} с {} по {}", itemId, from, to);
+        log.debug("Доступность вещи: {}", availability);
+        return availability;
+    }
+
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getAvailability(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                     @RequestParam List<Integer> itemIds,
+                                                     @RequestParam
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime from,
+                                                     @RequestParam
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime to) {
+        List<ItemAvailabilityDto> availability = itemService.getAvailability(userId, itemIds, from, to);
+        log.info("Получена доступность {} вещей с {} по {}", availability.size(), from, to);
+        return availability;
     }
 
     @PostMapping("/{itemId}/comment")
@@ -64,7 +112,18 @@ public class ItemController {
                                          @PathVariable int itemId,
                                          @RequestBody CommentDtoRequest commentRequest) {
         CommentDtoResponse comment = itemService.addComment(userId, itemId, commentRequest);
-        log.info("Добавлен комментарий {} к предмету с id: {}", comment, itemId);
+        log.info("Добавлен комментарий с id: {} к предмету с id: {}", comment.getId(), itemId);
+        log.debug("Добавлен комментарий {} к предмету с id: {}", comment, itemId);
         return comment;
     }
+
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDtoResponse> getComments(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                                @PathVariable int itemId,
+                                                @RequestParam(defaultValue = "0") int from,
+                                                @RequestParam(defaultValue = "10") int size) {
+        List<CommentDtoResponse> comments = itemService.getComments(userId, itemId, from, size);
+        log.info("Получены комментарии к вещи с id: {}, с {} количество: {}", itemId, from, comments.size());
+        return comments;
+    }
 }
\ No newline at end of file
@@ -1,33 +1,57 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Integer> {
 
     List<Item> findAllItemsByUserIdOrderByIdAsc(Integer userId);
 
-    List<Item> findAllItemsByItemRequestIdOrderByIdAsc(Integer requestId);
+    @Query("""
+            SELECT i.id
+            FROM Item AS i
+            WHERE i.user.id = :ownerId
+            """)
+    List<Integer> findIdsByOwnerId(int ownerId, Pageable pageable);
+
+    @Query("""
+            SELECT i.id
+            FROM Item AS i
+            WHERE i.itemRequest.requester.id = :requesterId
+            """)
+    List<Integer> findIdsByRequesterId(int requesterId, Pageable pageable);
 
     @Query("""
             SELECT i
             FROM Item AS i
             WHERE i.available IS TRUE
+            AND i.user.deleted IS FALSE
             AND (i.name ILIKE %:text%
                  OR i.description ILIKE %:text%)
             """)
     List<Item> search(String text);
 
+    // Анти-соединение с подтвержденными бронированиями, пересекающими интервал. Условие на start
+    // отсекает секции таблицы бронирований, начинающиеся после интервала.
     @Query("""
             SELECT i
             FROM Item AS i
-            JOIN FETCH i.user
-            WHERE i.itemRequest.id IN ?1
-            ORDER BY i.id ASC
+            WHERE i.available IS TRUE
+            AND i.user.deleted IS FALSE
+            AND (i.name ILIKE %:text%
+                 OR i.description ILIKE %:text%)
+            AND NOT EXISTS (SELECT b.id
+                            FROM Booking AS b
+                            WHERE b.item.id = i.id
+                            AND b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED
+                            AND b.start < :rangeEnd
+                            AND b.end > :rangeStart)
             """)
-    List<Item> findAllByRequestIdIn(List<Integer> requestIds);
+    List<Item> searchAvailableBetween(String text, LocalDateTime rangeStart, LocalDateTime rangeEnd);
 
 }
\ No newline at end of file
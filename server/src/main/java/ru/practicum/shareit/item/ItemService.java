@@ -3,10 +3,13 @@ package ru.practicum.shareit.item;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.comment.CommentDtoRequest;
 import ru.practicum.shareit.comment.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Transactional(readOnly = true)
@@ -15,6 +18,9 @@ public interface ItemService {
     @Transactional
     ItemDtoResponse createItem(int userId, ItemDtoRequest itemRequestDto);
 
+    @Transactional
+    List<ItemBatchResultDto> createItems(int userId, List<ItemDtoRequest> itemDtoRequests);
+
     @Transactional
     ItemDtoResponse updateItem(int userId, int itemId, ItemDtoRequest itemRequestDto);
 
@@ -22,8 +28,15 @@ public interface ItemService {
 
     List<ItemDto> getItems(int userId);
 
-    List<ItemDtoResponse> searchItems(int userId, String text);
+    List<ItemDtoResponse> searchItems(int userId, String text, LocalDateTime start, LocalDateTime end);
+
+    ItemAvailabilityDto getAvailability(int userId, int itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getAvailability(int userId, List<Integer> itemIds, LocalDateTime from,
+                                              LocalDateTime to);
 
     @Transactional
     CommentDtoResponse addComment(int userId, int itemId, CommentDtoRequest commentDtoRequest);
+
+    List<CommentDtoResponse> getComments(int userId, int itemId, int from, int size);
 }
\ No newline at end of file
@@ -2,18 +2,28 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.OffsetPageRequest;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStateCache;
+import ru.practicum.shareit.booking.BookingViewRepository;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.comment.*;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeType;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
@@ -21,20 +31,31 @@ import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int LATEST_COMMENTS = 10;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
+    private final ItemCommentStatsRepository itemCommentStatsRepository;
     private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final BookingStateCache bookingStateCache;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final OutboxWriter outboxWriter;
     private final ItemMapper itemMapper;
     private final BookingMapper bookingMapper;
     private final CommentMapper commentMapper;
@@ -52,8 +73,63 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item createdItem = itemRepository.save(item);
+        itemCommentStatsRepository.createForItems(List.of(createdItem.getId()));
 
-        return itemMapper.itemToDtoResponse(createdItem);
+        ItemDtoResponse itemResponse = itemMapper.itemToDtoResponse(createdItem);
+        outboxWriter.append(AggregateType.ITEM, createdItem.getId(), ChangeType.CREATED, itemResponse);
+        return itemResponse;
+    }
+
+    @Override
+    public List<ItemBatchResultDto> createItems(int userId, List<ItemDtoRequest> itemDtoRequests) {
+        if (itemDtoRequests.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Пакет не может содержать больше " + MAX_BATCH_SIZE + " вещей");
+        }
+        User user = getUser(userId);
+
+        Set<Integer> requestIds = itemDtoRequests.stream()
+                .map(ItemDtoRequest::getRequestId)
+                .filter(requestId -> requestId != null && requestId != 0)
+                .collect(Collectors.toSet());
+        Map<Integer, ItemRequest> itemRequests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<ItemBatchResultDto> results = new ArrayList<>(itemDtoRequests.size());
+        List<ItemBatchResultDto> pendingResults = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+
+        for (int row = 0; row < itemDtoRequests.size(); row++) {
+            ItemDtoRequest itemDtoRequest = itemDtoRequests.get(row);
+            ItemBatchResultDto result = ItemBatchResultDto.builder().row(row).build();
+            results.add(result);
+
+            final Integer requestId = itemDtoRequest.getRequestId();
+            if (itemDtoRequest.getName() == null || itemDtoRequest.getName().isBlank()) {
+                result.setError("Название должно быть указано!");
+            } else if (itemDtoRequest.getAvailable() == null) {
+                result.setError("Статус аренды должен быть указан!");
+            } else if (requestId != null && requestId != 0 && !itemRequests.containsKey(requestId)) {
+                result.setError("Запрос с id - " + requestId + " не найден!");
+            } else {
+                Item item = itemMapper.dtoToItem(itemDtoRequest, user, null);
+                item.setItemRequest(itemRequests.get(requestId));
+                items.add(item);
+                pendingResults.add(result);
+            }
+        }
+
+        List<Item> createdItems = itemRepository.saveAll(items);
+        for (int i = 0; i < createdItems.size(); i++) {
+            pendingResults.get(i).setId(createdItems.get(i).getId());
+        }
+        if (!createdItems.isEmpty()) {
+            itemCommentStatsRepository.createForItems(createdItems.stream().map(Item::getId).toList());
+        }
+        createdItems.forEach(item -> outboxWriter.append(AggregateType.ITEM, item.getId(), ChangeType.CREATED,
+                itemMapper.itemToDtoResponse(item)));
+
+        log.info("Пакет вещей пользователя с id {}: создано {} из {}", userId, createdItems.size(), results.size());
+        return results;
     }
 
     @Override
@@ -72,9 +148,16 @@ public class ItemServiceImpl implements ItemService {
             itemDtoRequest.setAvailable(oldItem.isAvailable());
         }
 
+        boolean nameChanged = !itemDtoRequest.getName().equals(oldItem.getName());
         Item updatedItem = itemRepository.save(itemMapper.dtoToItem(itemDtoRequest, oldUser, itemId));
+        if (nameChanged) {
+            bookingViewRepository.updateItemName(itemId, updatedItem.getName());
+            bookingStateCache.invalidate(bookingViewRepository.findBookerIdsByItemId(itemId), userId);
+        }
 
-        return itemMapper.itemToDtoResponse(updatedItem);
+        ItemDtoResponse itemResponse = itemMapper.itemToDtoResponse(updatedItem);
+        outboxWriter.append(AggregateType.ITEM, itemId, ChangeType.UPDATED, itemResponse);
+        return itemResponse;
     }
 
     @Override
@@ -83,15 +166,19 @@ public class ItemServiceImpl implements ItemService {
         Item item = getItem(itemId);
         ItemDtoResponse itemResponse = itemMapper.itemToDtoResponse(item);
 
-        List<CommentDtoResponse> commentResponses = commentRepository.getAllCommentsByItemId(itemId)
+        List<CommentDtoResponse> commentResponses = commentRepository
+                .findAllByItemIdWithAuthors(itemId, PageRequest.of(0, LATEST_COMMENTS))
                 .stream()
                 .map(commentMapper::commentToDtoResponse)
                 .toList();
+        long commentCount = itemCommentStatsRepository.findById(itemId)
+                .map(ItemCommentStats::getCommentCount)
+                .orElse(0L);
 
         Booking nextBooking = getNextBooking(userId);
         Booking lastBooking = getLastBooking(userId);
 
-        return itemMapper.toItemDto(userId, itemResponse, commentResponses,
+        return itemMapper.toItemDto(userId, itemResponse, commentResponses, commentCount,
                 bookingMapper.toItemBookingDto(nextBooking),
                 bookingMapper.toItemBookingDto(lastBooking));
     }
@@ -101,18 +188,24 @@ public class ItemServiceImpl implements ItemService {
         getUser(userId);
         List<Item> items = itemRepository.findAllItemsByUserIdOrderByIdAsc(userId);
         List<ItemDto> itemsDto = new ArrayList<>();
+        if (items.isEmpty()) {
+            return itemsDto;
+        }
+
+        List<Integer> itemIds = items.stream().map(Item::getId).toList();
+        Map<Integer, Long> commentCounts = itemCommentStatsRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemCommentStats::getItemId, ItemCommentStats::getCommentCount));
+        Map<Integer, List<CommentDtoResponse>> latestComments = getLatestComments(itemIds);
 
         for (Item item : items) {
             ItemDtoResponse itemResponse = itemMapper.itemToDtoResponse(item);
-            List<CommentDtoResponse> commentResponses = commentRepository.getAllCommentsByItemId(item.getId())
-                    .stream()
-                    .map(commentMapper::commentToDtoResponse)
-                    .toList();
+            List<CommentDtoResponse> commentResponses = latestComments.getOrDefault(item.getId(), List.of());
+            long commentCount = commentCounts.getOrDefault(item.getId(), 0L);
 
             Booking nextBooking = getNextBooking(userId);
             Booking lastBooking = getLastBooking(userId);
 
-            ItemDto itemDto = itemMapper.toItemDto(userId, itemResponse, commentResponses,
+            ItemDto itemDto = itemMapper.toItemDto(userId, itemResponse, commentResponses, commentCount,
                     bookingMapper.toItemBookingDto(nextBooking),
                     bookingMapper.toItemBookingDto(lastBooking));
             itemsDto.add(itemDto);
@@ -121,11 +214,19 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDtoResponse> searchItems(int userId, String text) {
+    public List<ItemDtoResponse> searchItems(int userId, String text, LocalDateTime start, LocalDateTime end) {
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Для поиска свободных вещей нужно указать и начало, и окончание интервала");
+        }
+        if (start != null) {
+            checkInterval(start, end);
+        }
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        List<Item> items = itemRepository.search(text);
+        List<Item> items = start == null
+                ? itemRepository.search(text)
+                : itemRepository.searchAvailableBetween(text, start, end);
 
         return items.stream()
                 .map(itemMapper::itemToDtoResponse)
@@ -133,23 +234,45 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public CommentDtoResponse addComment(int userId, int itemId, CommentDtoRequest commentDtoRequest) {
-
-        User user = getUser(userId);
+    public ItemAvailabilityDto getAvailability(int userId, int itemId, LocalDateTime from, LocalDateTime to) {
+        checkInterval(from, to);
+        getUser(userId);
         Item item = getItem(itemId);
-        Set<Integer> itemIds = new HashSet<>();
-        itemIds.add(itemId);
 
-        List<Booking> bookings = bookingRepository.findAllBookingsByItemIdInOrderByStartDesc(itemIds);
+        return itemMapper.toItemAvailabilityDto(item, itemAvailabilityIndex.get(itemId), from, to);
+    }
 
-        if (bookings.isEmpty()) {
-            log.warn("Для вещи с id {}  бронирования не было", itemId);
-            throw new ValidationException("Для вещи с id: " + itemId + " бронирования не было");
+    @Override
+    public List<ItemAvailabilityDto> getAvailability(int userId, List<Integer> itemIds, LocalDateTime from,
+                                                     LocalDateTime to) {
+        if (itemIds.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Нельзя запросить доступность больше " + MAX_BATCH_SIZE + " вещей");
         }
+        checkInterval(from, to);
+        getUser(userId);
+
+        Set<Integer> uniqueIds = new LinkedHashSet<>(itemIds);
+        Map<Integer, Item> items = itemRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Integer, BookedIntervals> intervals = itemAvailabilityIndex.getAll(items.keySet());
 
-        Booking booking = bookings.getFirst();
+        // Несуществующие вещи пропускаются: список строится по результатам поиска, которые могли устареть.
+        return uniqueIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(item -> itemMapper.toItemAvailabilityDto(item, intervals.get(item.getId()), from, to))
+                .toList();
+    }
 
-        if (booking.getBooker().getId() != userId || booking.getEnd().isAfter(LocalDateTime.now())) {
+    @Override
+    public CommentDtoResponse addComment(int userId, int itemId, CommentDtoRequest commentDtoRequest) {
+
+        User user = getUser(userId);
+        Item item = getItem(itemId);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!bookingRepository.existsByItemIdAndBookerIdAndStatusAndStartBeforeAndEndBefore(itemId, userId,
+                BookingStatus.APPROVED, now, now)) {
             log.warn("Пользователь с id {} не бронировал вещь с id {} или срок бронирования не истек", userId, itemId);
             throw new ValidationException("Пользователь с id: " + userId +
                     " не бронировал вещь с id: " + itemId +
@@ -158,12 +281,39 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = commentMapper.dtoToComment(commentDtoRequest, item, user);
         comment.setCreated(LocalDateTime.now());
+        Comment savedComment = commentRepository.save(comment);
+
+        // Строка статистики есть у каждой вещи (см. createForItems и schema.sql), поэтому здесь только UPDATE:
+        // одновременные первые комментарии не пытаются вставить ее дважды.
+        if (itemCommentStatsRepository.incrementCommentCount(itemId, savedComment.getCreated()) == 0) {
+            throw new IllegalStateException("Нет статистики комментариев для вещи с id - " + itemId);
+        }
 
-        return commentMapper.commentToDtoResponse(commentRepository.save(comment));
+        return commentMapper.commentToDtoResponse(savedComment);
+    }
+
+    @Override
+    public List<CommentDtoResponse> getComments(int userId, int itemId, int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным, а size должен быть больше 0");
+        }
+        getUser(userId);
+        getItem(itemId);
+
+        return commentRepository.findAllByItemIdWithAuthors(itemId, OffsetPageRequest.of(from, size))
+                .stream()
+                .map(commentMapper::commentToDtoResponse)
+                .toList();
+    }
+
+    private void checkInterval(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало интервала должно быть раньше его окончания");
+        }
     }
 
     private User getUser(int userId) {
-        return userRepository.findById(userId)
+        return userRepository.findByIdAndDeletedFalse(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id - " + userId + " не найден"));
     }
 
@@ -172,6 +322,16 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundException("Предмет с id - " + itemId + " не найден"));
     }
 
+    private Map<Integer, List<CommentDtoResponse>> getLatestComments(List<Integer> itemIds) {
+        List<Integer> commentIds = commentRepository.findLatestCommentIdsByItemIds(itemIds, LATEST_COMMENTS);
+        if (commentIds.isEmpty()) {
+            return Map.of();
+        }
+        return commentRepository.findAllByIdWithAuthors(commentIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::commentToDtoResponse, Collectors.toList())));
+    }
+
     private Booking getNextBooking(int userId) {
         List<Booking> bookings = bookingRepository
                 .findAllBookingsByItemUserIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
@@ -185,8 +345,9 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private Booking getLastBooking(int userId) {
+        LocalDateTime now = LocalDateTime.now();
         List<Booking> bookings = bookingRepository
-                .findAllBookingsByItemUserIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
+                .findAllBookingsByItemUserIdAndStartBeforeAndEndBeforeOrderByStartDesc(userId, now, now);
 
         Booking booking = new Booking();
 
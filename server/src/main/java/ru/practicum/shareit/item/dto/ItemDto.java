@@ -21,6 +21,7 @@ public class ItemDto {
     private Boolean available;
     private Integer requestId;
     private List<CommentDtoResponse> comments;
+    private Long commentCount;
     private BookingDtoForItem nextBooking;
     private BookingDtoForItem lastBooking;
     private User owner;
@@ -3,9 +3,11 @@ package ru.practicum.shareit.item.dto;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingDtoForItem;
 import ru.practicum.shareit.comment.CommentDtoResponse;
+import ru.practicum.shareit.item.BookedIntervals;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Component
@@ -32,7 +34,7 @@ public class ItemMapper {
                 .build();
     }
 
-    public ItemDto toItemDto(int userId, ItemDtoResponse item, List<CommentDtoResponse> comments,
+    public ItemDto toItemDto(int userId, ItemDtoResponse item, List<CommentDtoResponse> comments, long commentCount,
                              BookingDtoForItem nextBooking, BookingDtoForItem lastBooking) {
         ItemDto itemDto = ItemDto.builder()
                 .id(item.getId())
@@ -40,6 +42,7 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .owner(item.getOwner())
                 .available(item.getAvailable())
+                .commentCount(commentCount)
                 .build();
 
         if (comments != null) {
@@ -56,4 +59,17 @@ public class ItemMapper {
         }
         return itemDto;
     }
-}
\ No newline at end of file
+
+    public ItemAvailabilityDto toItemAvailabilityDto(Item item, BookedIntervals intervals,
+                                                     LocalDateTime from, LocalDateTime to) {
+        return ItemAvailabilityDto.builder()
+                .itemId(item.getId())
+                .from(from)
+                .to(to)
+                .available(item.isAvailable() && intervals.isFree(from, to))
+                .booked(intervals.between(from, to).stream()
+                        .map(interval -> new BookedIntervalDto(interval.start(), interval.end()))
+                        .toList())
+                .build();
+    }
+}
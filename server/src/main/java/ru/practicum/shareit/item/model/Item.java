@@ -23,10 +23,12 @@ public class Item {
     private boolean available;
 
     @ManyToOne
+    @ToString.Exclude
     @JoinColumn(name = "owner_id")
     private User user;
 
     @ManyToOne
+    @ToString.Exclude
     @JoinColumn(name = "request_id")
     private ItemRequest itemRequest;
 
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.outbox;
+
+public enum AggregateType {
+    ITEM,
+    BOOKING,
+    REQUEST,
+    USER
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие об изменении, которое получают подписчики. payload - JSON с состоянием сущности
+ * после изменения в том же виде, в каком его возвращает REST API; для удаления см. {@link ChangeType#DELETED}.
+ */
+public record ChangeEvent(long id, AggregateType aggregateType, int aggregateId, ChangeType type, String payload,
+                          LocalDateTime created) {
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Подписчик на изменения вещей, бронирований и запросов внутри приложения, например кэш или индекс.
+ * Пачки приходят в порядке id событий. Доставка "хотя бы один раз": если подписчик бросит
+ * исключение, пачка будет отправлена повторно всем подписчикам, поэтому обработка должна быть
+ * идемпотентной, например по {@link ChangeEvent#id()}.
+ */
+public interface ChangeEventConsumer {
+
+    void accept(List<ChangeEvent> events);
+
+    /**
+     * true, если событие нужно на каждом экземпляре сервера, например для рассылки подключенным
+     * к нему клиентам. По умолчанию подписчик получает событие один раз на все экземпляры.
+     */
+    default boolean perInstance() {
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    /**
+     * Сущность удалена вместе с пользователем. payload содержит только id, а для бронирования -
+     * также вещь с владельцем и арендатора, чтобы событие можно было направить владельцу.
+     */
+    DELETED
+}
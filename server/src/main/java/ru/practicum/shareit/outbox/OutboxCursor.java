@@ -0,0 +1,23 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Позиция ретранслятора в outbox_events: события с id не больше lastEventId уже переданы общим подписчикам.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_cursors")
+public class OutboxCursor {
+
+    @Id
+    private String consumer;
+
+    @Column(name = "last_event_id")
+    private Long lastEventId;
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, String> {
+
+    // Курсор, занятый другим экземпляром ретранслятора, не возвращается: экземпляр не ждет
+    // блокировку, а пропускает проход (FOR UPDATE SKIP LOCKED, таймаут -2 в Hibernate).
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT c
+            FROM OutboxCursor AS c
+            WHERE c.consumer = :consumer
+            """)
+    Optional<OutboxCursor> findForUpdateSkipLocked(String consumer);
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Изменение вещи, бронирования или запроса, записанное в той же транзакции, что и само изменение.
+ * Строка удаляется, когда событие передано общим подписчикам и хранится дольше shareit.outbox.retention.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type")
+    private AggregateType aggregateType;
+
+    @Column(name = "aggregate_id")
+    private Integer aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type")
+    private ChangeType type;
+
+    @ToString.Exclude
+    private String payload;
+
+    private LocalDateTime created;
+}
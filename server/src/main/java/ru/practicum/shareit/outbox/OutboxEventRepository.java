@@ -0,0 +1,44 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("""
+            SELECT e
+            FROM OutboxEvent AS e
+            WHERE e.id > :afterId
+            ORDER BY e.id
+            """)
+    List<OutboxEvent> findAfter(long afterId, Pageable pageable);
+
+    // Самый старый xid среди незавершенных транзакций: все транзакции с меньшим xid уже завершены.
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)",
+            nativeQuery = true)
+    long findSnapshotXmin();
+
+    // Следующий xid, который получит транзакция: у всех уже начавших запись транзакций xid меньше.
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS TEXT) AS BIGINT)",
+            nativeQuery = true)
+    long findSnapshotXmax();
+
+    @Query("""
+            SELECT COALESCE(MAX(e.id), 0)
+            FROM OutboxEvent AS e
+            """)
+    long findMaxId();
+
+    @Modifying
+    @Query("""
+            DELETE FROM OutboxEvent AS e
+            WHERE e.id <= :lastEventId
+            AND e.created < :before
+            """)
+    int deleteDeliveredBefore(long lastEventId, LocalDateTime before);
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Способ понять, что пропуск в id событий уже не заполнится: транзакция, получившая этот id, откатилась.
+ */
+public enum OutboxGapDetection {
+    /**
+     * По снимку транзакций PostgreSQL. Пропуск закрывается, когда завершились все транзакции,
+     * получившие xid до того, как пропуск был замечен. Долгая транзакция задерживает передачу,
+     * но не теряет свои события.
+     */
+    SNAPSHOT,
+    /**
+     * По возрасту события за пропуском (gapTimeout) - для баз без снимков транзакций, например H2 в тестах.
+     * События транзакции, которая фиксируется дольше gapTimeout, при этом теряются.
+     */
+    TIMEOUT
+}
@@ -0,0 +1,217 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Передает события из outbox_events подписчикам {@link ChangeEventConsumer} пачками в порядке id.
+ * <p>
+ * Общие подписчики получают каждое событие один раз на все экземпляры сервера. Их позиция хранится
+ * в outbox_cursors: курсор блокируется на время прохода, пачка отправляется подписчикам и курсор
+ * сдвигается в одной транзакции. Если подписчик упал, транзакция откатывается и пачка уйдет повторно
+ * на следующем проходе.
+ * <p>
+ * Подписчики с {@link ChangeEventConsumer#perInstance()} получают каждое событие на каждом экземпляре:
+ * у каждого экземпляра своя позиция в памяти, с которой он читает журнал без блокировок. Поэтому
+ * переданные события не удаляются сразу, а хранятся retention, чтобы их успели прочитать все экземпляры.
+ * Экземпляр начинает чтение с последнего события на момент первого прохода.
+ * <p>
+ * id выдается при вставке, а видна строка после фиксации, поэтому событие с меньшим id может
+ * появиться позже события с большим - например, два изменения одной вещи из разных транзакций.
+ * Чтобы не передать их не по порядку, ретранслятор останавливается перед пропуском в id и ждет
+ * недостающие события. Пропуск пропускается, только когда транзакция, получившая id, точно
+ * завершилась без него - см. {@link OutboxGapDetection}. Каждый пропущенный диапазон id пишется
+ * в лог и в счетчик shareit.outbox.gaps.skipped.
+ */
+@Slf4j
+public class OutboxRelay {
+
+    static final String CURSOR = "relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final ObjectProvider<ChangeEventConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int batchSize;
+    private final OutboxGapDetection gapDetection;
+    private final Duration gapTimeout;
+    private final Duration retention;
+
+    // Позиция подписчиков этого экземпляра; null до первого прохода.
+    private Long localLastEventId;
+
+    private final GapHorizon sharedGaps = new GapHorizon();
+    private final GapHorizon localGaps = new GapHorizon();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxCursorRepository outboxCursorRepository,
+                       ObjectProvider<ChangeEventConsumer> consumers,
+                       TransactionTemplate transactionTemplate,
+                       ObjectProvider<MeterRegistry> meterRegistry,
+                       int batchSize, OutboxGapDetection gapDetection, Duration gapTimeout,
+                       Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.consumers = consumers;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.gapDetection = gapDetection;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval:PT1S}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = relaySharedBatch();
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Не удалось передать события общим подписчикам, повтор на следующем проходе", e);
+        }
+        try {
+            int published;
+            do {
+                published = relayLocalBatch();
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Не удалось передать события подписчикам экземпляра, повтор на следующем проходе", e);
+        }
+    }
+
+    /**
+     * Удаляет события, которые уже получили общие подписчики и которые старше retention.
+     */
+    @Scheduled(fixedDelayString = "${shareit.outbox.purge-interval:PT1M}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status -> outboxCursorRepository.findById(CURSOR)
+                .map(cursor -> outboxEventRepository.deleteDeliveredBefore(cursor.getLastEventId(),
+                        LocalDateTime.now().minus(retention)))
+                .orElse(0));
+        if (deleted != null && deleted > 0) {
+            log.debug("Удалено переданных событий: {}", deleted);
+        }
+    }
+
+    int relaySharedBatch() {
+        List<ChangeEventConsumer> shared = consumers.orderedStream()
+                .filter(consumer -> !consumer.perInstance())
+                .toList();
+        Integer published = transactionTemplate.execute(status -> {
+            OutboxCursor cursor = outboxCursorRepository.findForUpdateSkipLocked(CURSOR).orElse(null);
+            if (cursor == null) {
+                log.debug("События передает другой экземпляр сервера");
+                return 0;
+            }
+            List<OutboxEvent> batch = untilGap(outboxEventRepository.findAfter(cursor.getLastEventId(),
+                    PageRequest.of(0, batchSize)), cursor.getLastEventId(), sharedGaps, "shared");
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<ChangeEvent> events = toChangeEvents(batch);
+            shared.forEach(consumer -> consumer.accept(events));
+            cursor.setLastEventId(batch.getLast().getId());
+            return batch.size();
+        });
+        return count(published, "shared");
+    }
+
+    int relayLocalBatch() {
+        List<ChangeEventConsumer> local = consumers.orderedStream()
+                .filter(ChangeEventConsumer::perInstance)
+                .toList();
+        if (local.isEmpty()) {
+            return 0;
+        }
+        if (localLastEventId == null) {
+            localLastEventId = outboxEventRepository.findMaxId();
+            return 0;
+        }
+        // Чтение и снимок транзакций - в транзакции на запись, то есть с основной базы, а не с реплики.
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> untilGap(
+                outboxEventRepository.findAfter(localLastEventId, PageRequest.of(0, batchSize)), localLastEventId,
+                localGaps, "local"));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<ChangeEvent> events = toChangeEvents(batch);
+        local.forEach(consumer -> consumer.accept(events));
+        localLastEventId = batch.getLast().getId();
+        return count(batch.size(), "local");
+    }
+
+    private int count(Integer published, String delivery) {
+        if (published == null || published == 0) {
+            return 0;
+        }
+        meterRegistry.ifAvailable(registry -> registry.counter("shareit.outbox.published", "delivery", delivery)
+                .increment(published));
+        log.debug("Передано подписчикам событий: {}, доставка: {}", published, delivery);
+        return published;
+    }
+
+    private List<ChangeEvent> toChangeEvents(List<OutboxEvent> batch) {
+        return batch.stream()
+                .map(event -> new ChangeEvent(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                        event.getType(), event.getPayload(), event.getCreated()))
+                .toList();
+    }
+
+    private List<OutboxEvent> untilGap(List<OutboxEvent> events, long lastEventId, GapHorizon gaps,
+                                       String delivery) {
+        long expectedId = lastEventId + 1;
+        int count = 0;
+        for (OutboxEvent event : events) {
+            if (event.getId() != expectedId) {
+                if (!isGapSettled(event, events.getLast().getId(), gaps)) {
+                    log.debug("Передача событий остановлена перед id {}: ожидается фиксация события с id {}",
+                            event.getId(), expectedId);
+                    break;
+                }
+                long skipped = event.getId() - expectedId;
+                log.warn("Пропущены id событий с {} по {}: транзакции завершились без них, доставка: {}",
+                        expectedId, event.getId() - 1, delivery);
+                meterRegistry.ifAvailable(registry -> registry.counter("shareit.outbox.gaps.skipped",
+                        "delivery", delivery).increment(skipped));
+            }
+            expectedId = event.getId() + 1;
+            count++;
+        }
+        return events.subList(0, count);
+    }
+
+    /**
+     * Пропуск перед event закрыт, если транзакция, получившая недостающий id, уже завершилась.
+     * Ее xid неизвестен, но он меньше xmax снимка, взятого после чтения, в котором пропуск был
+     * замечен. Поэтому запоминается этот xmax, и пропуск закрывается, когда xmin текущего снимка
+     * до него дорастет: все транзакции с меньшим xid завершены.
+     */
+    private boolean isGapSettled(OutboxEvent event, long lastReadId, GapHorizon gaps) {
+        if (gapDetection == OutboxGapDetection.TIMEOUT) {
+            return !event.getCreated().isAfter(LocalDateTime.now().minus(gapTimeout));
+        }
+        if (event.getId() <= gaps.upToId) {
+            return outboxEventRepository.findSnapshotXmin() >= gaps.xmax;
+        }
+        gaps.upToId = lastReadId;
+        gaps.xmax = outboxEventRepository.findSnapshotXmax();
+        return false;
+    }
+
+    // Пропуски перед событиями с id до upToId закрываются, когда завершатся все транзакции с xid меньше xmax.
+    private static final class GapHorizon {
+        private long upToId;
+        private long xmax;
+    }
+}
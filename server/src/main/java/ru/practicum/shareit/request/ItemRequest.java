@@ -21,6 +21,7 @@ public class ItemRequest {
     private String description;
 
     @ManyToOne
+    @ToString.Exclude
     @JoinColumn(name = "requester_id")
     private User requester;
     private LocalDateTime created = LocalDateTime.now();
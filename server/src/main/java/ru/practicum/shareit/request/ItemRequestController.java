@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Constants;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
 
 import java.util.List;
 
@@ -20,7 +21,8 @@ public class ItemRequestController {
     public ItemRequestDto createRequest(@RequestHeader(X_SHARER_USER_ID) int userId,
                                         @RequestBody ItemRequestDtoRequest request) {
         ItemRequestDto createdRequest = service.createRequest(userId, request);
-        log.info("Добавлен запрос: {}", createdRequest);
+        log.info("Пользователь с id: {} добавил запрос с id: {}", userId, createdRequest.getId());
+        log.debug("Добавлен запрос: {}", createdRequest);
         return createdRequest;
     }
 
@@ -28,21 +30,32 @@ public class ItemRequestController {
     public ItemRequestDto getRequestById(@RequestHeader(X_SHARER_USER_ID) int userId,
                                          @PathVariable int requestId) {
         ItemRequestDto request = service.getRequestById(userId, requestId);
-        log.info("Получен запрос: {}", request);
+        log.info("Получен запрос с id: {}", requestId);
+        log.debug("Получен запрос: {}", request);
         return request;
     }
 
     @GetMapping
     public List<ItemRequestDto> getAllRequestByUserId(@RequestHeader(X_SHARER_USER_ID) int userId) {
         List<ItemRequestDto> requests = service.getAllRequestByUserId(userId);
-        log.info("Получен список запросов пользователя: {}", requests);
+        log.info("Получен список запросов пользователя с id: {}, количество: {}", userId, requests.size());
+        log.debug("Запросы пользователя с id: {}: {}", userId, requests);
         return requests;
     }
 
     @GetMapping("/all")
     public List<ItemRequestDto> getAllRequest(@RequestHeader(X_SHARER_USER_ID) int userId) {
         List<ItemRequestDto> requests = service.getAllRequest();
-        log.info("Получен список всех запросов: {}", requests);
+        log.info("Получен список всех запросов, количество: {}", requests.size());
+        log.debug("Список всех запросов: {}", requests);
         return requests;
     }
+
+    @GetMapping("/{requestId}/matches")
+    public List<ItemDtoResponse> getMatches(@RequestHeader(X_SHARER_USER_ID) int userId,
+                                           @PathVariable int requestId) {
+        List<ItemDtoResponse> items = service.getMatches(userId, requestId);
+        log.info("Получены предложенные вещи для запроса с id: {}, количество: {}", requestId, items.size());
+        return items;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.request;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запрос вместе с автором и ответами, собранный одним SQL-запросом.
+ * Ответы приходят JSON-массивом в формате {@link ru.practicum.shareit.item.dto.ItemDtoResponse}.
+ */
+public record ItemRequestFeedRow(Integer id, String description, LocalDateTime created, Integer requesterId,
+                                 String requesterName, String requesterEmail, String items) {
+}
\ No newline at end of file
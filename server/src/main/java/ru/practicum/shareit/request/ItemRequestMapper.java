@@ -1,33 +1,68 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.user.User;
 
+import java.io.IOException;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class ItemRequestMapper {
 
-    public ItemRequestDto toDto(ItemRequest itemRequest, List<ItemDtoResponse> items) {
+    private static final DateTimeFormatter CREATED_FORMATTER = DateTimeFormatter
+            .ofPattern("dd.MM.yyyy HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
+    private final ObjectReader itemsReader;
 
-        String createdDate = DateTimeFormatter
-                .ofPattern("dd.MM.yyyy HH:mm:ss")
-                .withZone(ZoneOffset.UTC)
-                .format(itemRequest.getCreated());
+    public ItemRequestMapper(ObjectMapper objectMapper) {
+        this.itemsReader = objectMapper.readerForListOf(ItemDtoResponse.class);
+    }
 
+    public ItemRequestDto toDto(ItemRequest itemRequest, List<ItemDtoResponse> items) {
         return ItemRequestDto.builder()
                 .id(itemRequest.getId())
                 .description(itemRequest.getDescription())
                 .requester(itemRequest.getRequester())
-                .created(createdDate)
+                .created(CREATED_FORMATTER.format(itemRequest.getCreated()))
                 .items(items)
                 .build();
     }
 
+    public ItemRequestDto toDto(ItemRequestFeedRow row) {
+        User requester = new User();
+        requester.setId(row.requesterId());
+        requester.setName(row.requesterName());
+        requester.setEmail(row.requesterEmail());
+
+        return ItemRequestDto.builder()
+                .id(row.id())
+                .description(row.description())
+                .requester(requester)
+                .created(CREATED_FORMATTER.format(row.created()))
+                .items(readItems(row))
+                .build();
+    }
+
+    // Ответы на запрос база отдает одним JSON-массивом; Jackson разбирает его в те же DTO, что и везде.
+    private List<ItemDtoResponse> readItems(ItemRequestFeedRow row) {
+        if (row.items() == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return itemsReader.readValue(row.items());
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось прочитать ответы на запрос с id - " + row.id(), e);
+        }
+    }
+
     public ItemRequest toRequest(User user, ItemRequestDtoRequest requestDto) {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setDescription(requestDto.getDescription());
@@ -1,17 +1,35 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Integer> {
 
     @Query("""
-            SELECT DISTINCT ir
+            SELECT new ru.practicum.shareit.request.RequestText(ir.id, ir.requester.id, ir.description)
             FROM ItemRequest AS ir
-            JOIN FETCH ir.requester
-            WHERE ir.requester.id = ?1
+            WHERE ir.id > :afterId
+            AND NOT EXISTS (SELECT i FROM Item AS i WHERE i.itemRequest.id = ir.id)
+            ORDER BY ir.id
             """)
-    List<ItemRequest> findAllByRequesterIdWithUser(int userId);
-}
\ No newline at end of file
+    List<RequestText> findOpenAfter(int afterId);
+
+    @Query("""
+            SELECT ir.id
+            FROM ItemRequest AS ir
+            WHERE ir.id IN :requestIds
+            AND NOT EXISTS (SELECT i FROM Item AS i WHERE i.itemRequest.id = ir.id)
+            """)
+    List<Integer> findOpenIds(Collection<Integer> requestIds);
+
+    @Query("""
+            SELECT ir.id
+            FROM ItemRequest AS ir
+            WHERE ir.requester.id = :requesterId
+            """)
+    List<Integer> findIdsByRequesterId(int requesterId, Pageable pageable);
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
 
 import java.util.List;
 
@@ -15,4 +16,6 @@ public interface ItemRequestService {
     List<ItemRequestDto> getAllRequestByUserId(int userId);
 
     List<ItemRequestDto> getAllRequest();
+
+    List<ItemDtoResponse> getMatches(int userId, int requestId);
 }
\ No newline at end of file
@@ -7,13 +7,13 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.item.dto.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeType;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,55 +22,36 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestFeedRepository itemRequestFeedRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final ItemRequestMapper mapper;
     private final ItemMapper itemMapper;
+    private final OutboxWriter outboxWriter;
+    private final RequestMatchRepository requestMatchRepository;
 
     @Override
     public ItemRequestDto createRequest(int userId, ItemRequestDtoRequest requestDto) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findByIdAndDeletedFalse(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id - " + userId + " не найден!"));
         ItemRequest itemRequest = itemRequestRepository.save(mapper.toRequest(user, requestDto));
-        return mapper.toDto(itemRequest, null);
+        ItemRequestDto itemRequestDto = mapper.toDto(itemRequest, null);
+        outboxWriter.append(AggregateType.REQUEST, itemRequest.getId(), ChangeType.CREATED, itemRequestDto);
+        return itemRequestDto;
     }
 
     @Override
     public ItemRequestDto getRequestById(int userId, int requestId) {
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+        return itemRequestFeedRepository.findById(requestId)
+                .map(mapper::toDto)
                 .orElseThrow(() -> new NotFoundException("Запрос с id - " + requestId + " не найден!"));
-
-        List<ItemDtoResponse> items = itemRepository.findAllItemsByItemRequestIdOrderByIdAsc(requestId)
-                .stream()
-                .map(itemMapper::itemToDtoResponse)
-                .collect(Collectors.toList());
-
-        return mapper.toDto(itemRequest, items);
     }
 
     @Override
     public List<ItemRequestDto> getAllRequestByUserId(int userId) {
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdWithUser(userId);
-        if (itemRequests.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Integer> requestIds = itemRequests.stream()
-                .map(ItemRequest::getId)
-                .collect(Collectors.toList());
-
-        List<Item> items = itemRepository.findAllByRequestIdIn(requestIds);
-
-        Map<Integer, List<ItemDtoResponse>> itemsByRequestId = items.stream()
-                .map(itemMapper::itemToDtoResponse)
-                .collect(Collectors.groupingBy(ItemDtoResponse::getRequestId));
-
-        return itemRequests.stream()
-                .map(request -> {
-                    List<ItemDtoResponse> itemsForRequest =
-                            itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList());
-                    return mapper.toDto(request, itemsForRequest);
-                })
+        return itemRequestFeedRepository.findAllByRequesterId(userId)
+                .stream()
+                .map(mapper::toDto)
                 .collect(Collectors.toList());
     }
 
@@ -88,4 +69,16 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         return mapper.requestsToDto(itemRequests, items);
     }
+
+    @Override
+    public List<ItemDtoResponse> getMatches(int userId, int requestId) {
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+                .filter(request -> request.getRequester().getId() == userId)
+                .orElseThrow(() -> new NotFoundException("Запрос с id - " + requestId + " не найден!"));
+
+        return requestMatchRepository.findMatchedItems(itemRequest.getId())
+                .stream()
+                .map(itemMapper::itemToDtoResponse)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request;
+
+/**
+ * Новая вещь в виде, нужном сопоставителю: владелец, запрос, на который она отвечает, и текст.
+ */
+public record ItemText(Integer id, Integer ownerId, Integer requestId, String name, String description) {
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Вещь, которую сопоставитель предложил автору запроса: запрос еще без ответов,
+ * а название и описание вещи совпадают с его описанием.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "request_matches")
+public class RequestMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "request_id")
+    private Integer requestId;
+
+    @Column(name = "item_id")
+    private Integer itemId;
+
+    private double score;
+
+    private LocalDateTime created;
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RequestMatchRepository extends JpaRepository<RequestMatch, Integer> {
+
+    List<RequestMatch> findAllByItemIdIn(Collection<Integer> itemIds);
+
+    @Query("""
+            SELECT m.id
+            FROM RequestMatch AS m
+            WHERE m.requestId IN (SELECT ir.id
+                                  FROM ItemRequest AS ir
+                                  WHERE ir.requester.id = :requesterId)
+            """)
+    List<Integer> findIdsByRequesterId(int requesterId, Pageable pageable);
+
+    @Query("""
+            SELECT i
+            FROM RequestMatch AS m
+            JOIN Item AS i ON i.id = m.itemId
+            JOIN FETCH i.user
+            WHERE m.requestId = :requestId
+            ORDER BY m.score DESC, m.id
+            """)
+    List<Item> findMatchedItems(int requestId);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.request.ItemText(i.id, i.user.id, r.id, i.name, i.description)
+            FROM Item AS i
+            LEFT JOIN i.itemRequest AS r
+            WHERE i.id IN :itemIds
+            """)
+    List<ItemText> findItemTexts(Collection<Integer> itemIds);
+}
@@ -0,0 +1,246 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeEvent;
+import ru.practicum.shareit.outbox.ChangeEventConsumer;
+import ru.practicum.shareit.outbox.ChangeType;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Предлагает новые вещи авторам запросов, на которые еще никто не ответил.
+ * <p>
+ * Работает вне запроса на создание вещи: получает события ITEM/CREATED из outbox_events и пишет
+ * предложения в request_matches в транзакции ретранслятора. Открытые запросы хранятся в памяти
+ * как обратный индекс "основа слова -> запросы". Новые запросы дочитываются из базы по
+ * возрастанию id на каждой пачке, поэтому индекс не зависит от того, какой экземпляр сервера
+ * получил событие о запросе.
+ * <p>
+ * Оценка — доля веса слов запроса, встретившихся в названии или описании вещи. Вес слова — IDF:
+ * чем реже слово среди открытых запросов, тем больше оно значит. Предлагаются не больше
+ * {@code maxMatchesPerItem} запросов с оценкой от {@code minScore}. Свои запросы владельцу вещи
+ * не предлагаются.
+ * <p>
+ * Частые слова ("дрель" при тысячах запросов о дрелях) дали бы на каждую вещь обход огромных
+ * списков. Поэтому кандидаты берутся только из {@code maxCandidatesPerToken} самых новых запросов
+ * каждого слова, а затем каждый кандидат оценивается точно по своим немногим словам.
+ * Работа на одну вещь ограничена независимо от числа открытых запросов.
+ */
+@Slf4j
+@Component
+public class RequestMatcher implements ChangeEventConsumer {
+
+    private static final String INSERT_MATCH =
+            "INSERT INTO request_matches (request_id, item_id, score, created) VALUES (?, ?, ?, ?)";
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final RequestMatchRepository requestMatchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final double minScore;
+    private final int maxMatchesPerItem;
+    private final int maxCandidatesPerToken;
+
+    private final Map<String, LinkedHashSet<Integer>> postings = new HashMap<>();
+    private final Map<Integer, OpenRequest> requests = new HashMap<>();
+    private int lastRequestId;
+
+    public RequestMatcher(ItemRequestRepository itemRequestRepository,
+                          RequestMatchRepository requestMatchRepository,
+                          JdbcTemplate jdbcTemplate,
+                          ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${shareit.requests.matching.min-score:0.5}") double minScore,
+                          @Value("${shareit.requests.matching.max-matches-per-item:5}") int maxMatchesPerItem,
+                          @Value("${shareit.requests.matching.max-candidates-per-token:200}")
+                          int maxCandidatesPerToken) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.requestMatchRepository = requestMatchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.minScore = minScore;
+        this.maxMatchesPerItem = maxMatchesPerItem;
+        this.maxCandidatesPerToken = maxCandidatesPerToken;
+    }
+
+    @Override
+    public synchronized void accept(List<ChangeEvent> events) {
+        Set<Integer> itemIds = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.aggregateType() == AggregateType.ITEM && event.type() == ChangeType.CREATED) {
+                itemIds.add(event.aggregateId());
+            } else if (event.aggregateType() == AggregateType.REQUEST && event.type() == ChangeType.DELETED) {
+                removeRequest(event.aggregateId());
+            }
+        }
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        loadNewRequests();
+
+        List<ItemText> items = requestMatchRepository.findItemTexts(itemIds);
+        // Запросы, на которые отвечают новые вещи, больше не открыты.
+        items.stream()
+                .filter(item -> item.requestId() != null)
+                .forEach(item -> removeRequest(item.requestId()));
+
+        List<RequestMatch> matches = new ArrayList<>();
+        for (ItemText item : items) {
+            matches.addAll(match(item));
+        }
+        if (matches.isEmpty()) {
+            return;
+        }
+        save(matches);
+    }
+
+    /**
+     * Кандидаты для одной вещи: самые новые запросы по каждому ее слову. Оценка кандидата —
+     * вес его слов, встретившихся у вещи, деленный на вес всех его слов.
+     */
+    private List<RequestMatch> match(ItemText item) {
+        Set<String> tokens = TextTokenizer.tokenize(item.name(), item.description());
+        Set<Integer> candidates = new HashSet<>();
+        for (String token : tokens) {
+            LinkedHashSet<Integer> requestIds = postings.get(token);
+            if (requestIds != null) {
+                requestIds.reversed().stream()
+                        .limit(maxCandidatesPerToken)
+                        .forEach(candidates::add);
+            }
+        }
+
+        // У кандидатов много общих слов, поэтому IDF считается один раз на слово.
+        Map<String, Double> idfs = new HashMap<>();
+        List<RequestMatch> matches = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Integer requestId : candidates) {
+            OpenRequest request = requests.get(requestId);
+            if (request.requesterId().equals(item.ownerId())) {
+                continue;
+            }
+            double score = score(request, tokens, idfs);
+            if (score >= minScore) {
+                matches.add(RequestMatch.builder()
+                        .requestId(requestId)
+                        .itemId(item.id())
+                        .score(score)
+                        .created(now)
+                        .build());
+            }
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(RequestMatch::getScore).reversed()
+                        .thenComparing(RequestMatch::getRequestId, Comparator.reverseOrder()))
+                .limit(maxMatchesPerItem)
+                .toList();
+    }
+
+    int getOpenRequestCount() {
+        return requests.size();
+    }
+
+    /**
+     * Пропускает уже записанные предложения (пачка могла прийти повторно) и запросы, которые
+     * успели получить ответ или были удалены другим экземпляром сервера.
+     */
+    private void save(List<RequestMatch> matches) {
+        Set<Integer> candidateIds = new HashSet<>();
+        Set<Integer> itemIds = new HashSet<>();
+        matches.forEach(match -> {
+            candidateIds.add(match.getRequestId());
+            itemIds.add(match.getItemId());
+        });
+
+        Set<Integer> openIds = new HashSet<>(itemRequestRepository.findOpenIds(candidateIds));
+        candidateIds.stream()
+                .filter(requestId -> !openIds.contains(requestId))
+                .forEach(this::removeRequest);
+
+        Set<String> existing = new HashSet<>();
+        requestMatchRepository.findAllByItemIdIn(itemIds)
+                .forEach(match -> existing.add(match.getRequestId() + ":" + match.getItemId()));
+
+        List<RequestMatch> newMatches = matches.stream()
+                .filter(match -> openIds.contains(match.getRequestId()))
+                .filter(match -> !existing.contains(match.getRequestId() + ":" + match.getItemId()))
+                .toList();
+        if (newMatches.isEmpty()) {
+            return;
+        }
+        // Пачкой через JDBC: IDENTITY-ключ не дает Hibernate объединять вставки, а на пачку из outbox
+        // приходятся тысячи предложений. JdbcTemplate работает в той же транзакции ретранслятора.
+        jdbcTemplate.batchUpdate(INSERT_MATCH, newMatches, newMatches.size(), (statement, match) -> {
+            statement.setInt(1, match.getRequestId());
+            statement.setInt(2, match.getItemId());
+            statement.setDouble(3, match.getScore());
+            statement.setTimestamp(4, Timestamp.valueOf(match.getCreated()));
+        });
+
+        meterRegistry.ifAvailable(registry -> registry.counter("shareit.requests.matches")
+                .increment(newMatches.size()));
+        log.debug("Записано предложений вещей для запросов: {}", newMatches.size());
+    }
+
+    // Запрос, закоммиченный позже запроса с большим id, сюда не попадет: такое окно очень короткое,
+    // а пропуск означает лишь отсутствие предложений для одного запроса.
+    private void loadNewRequests() {
+        for (RequestText request : itemRequestRepository.findOpenAfter(lastRequestId)) {
+            Set<String> tokens = TextTokenizer.tokenize(request.description());
+            if (!tokens.isEmpty()) {
+                requests.put(request.id(), new OpenRequest(request.requesterId(), tokens));
+                tokens.forEach(token -> postings.computeIfAbsent(token, key -> new LinkedHashSet<>())
+                        .add(request.id()));
+            }
+            lastRequestId = Math.max(lastRequestId, request.id());
+        }
+    }
+
+    private void removeRequest(int requestId) {
+        OpenRequest request = requests.remove(requestId);
+        if (request == null) {
+            return;
+        }
+        for (String token : request.tokens()) {
+            LinkedHashSet<Integer> requestIds = postings.get(token);
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private double score(OpenRequest request, Set<String> itemTokens, Map<String, Double> idfs) {
+        double shared = 0;
+        double total = 0;
+        for (String token : request.tokens()) {
+            double idf = idfs.computeIfAbsent(token, key -> idf(postings.get(key).size()));
+            total += idf;
+            if (itemTokens.contains(token)) {
+                shared += idf;
+            }
+        }
+        return shared / total;
+    }
+
+    private double idf(int requestCount) {
+        return Math.log(1 + (double) requests.size() / requestCount);
+    }
+
+    private record OpenRequest(Integer requesterId, Set<String> tokens) {
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request;
+
+/**
+ * Запрос без ответов в виде, нужном сопоставителю: автор и текст описания.
+ */
+public record RequestText(Integer id, Integer requesterId, String description) {
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.request;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Разбивает текст запроса или вещи на основы слов. Основа получается грубо: у слова отрезаются
+ * конечные гласные, ь и й (и s для английских слов), а результат обрезается до шести букв.
+ * Этого хватает, чтобы "дрель", "дрели" и "дрелью" совпали, а словарь не понадобился.
+ */
+final class TextTokenizer {
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String ENDINGS = "аеиоуыэюяьйaeiouys";
+    private static final int MIN_LENGTH = 3;
+    private static final int STEM_LENGTH = 6;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "нужен", "нужна", "нужно", "нужны", "ищу", "хочу", "для", "или", "как", "что", "где",
+            "взять", "аренду", "аренда", "напрокат", "пожалуйста", "можно", "кто", "есть", "очень",
+            "the", "and", "for", "need", "with", "want", "rent", "please");
+
+    private TextTokenizer() {
+    }
+
+    static Set<String> tokenize(String... texts) {
+        Set<String> tokens = new HashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String word : SEPARATOR.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е'))) {
+                if (word.length() >= MIN_LENGTH && !STOP_WORDS.contains(word)) {
+                    tokens.add(stem(word));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static String stem(String word) {
+        int end = word.length();
+        while (end > MIN_LENGTH && ENDINGS.indexOf(word.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return word.substring(0, Math.min(end, STEM_LENGTH));
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума по email зарегистрированных пользователей. Если фильтр говорит, что email нет,
+ * его точно нет среди адресов, добавленных этим экземпляром сервера или загруженных при старте,
+ * и запрос existsByEmail не нужен. Ответ "может быть" проверяется запросом.
+ * <p>
+ * Фильтр не знает об адресах, зарегистрированных другими экземплярами после старта, и не забывает
+ * удаленные адреса. Поэтому окончательно уникальность проверяет ограничение в базе, а фильтр только
+ * избавляет от лишних запросов. Удаленные и измененные адреса дают ложные "может быть", а не ошибки.
+ */
+@Slf4j
+@Component
+public class EmailBloomFilter {
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean loaded;
+
+    public EmailBloomFilter(UserRepository userRepository,
+                            ObjectProvider<MeterRegistry> meterRegistry,
+                            @Value("${shareit.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${shareit.users.email-filter.false-positive-probability:0.01}") double fpp) {
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        // Стандартные формулы: m = -n * ln(p) / ln(2)^2 бит и k = m / n * ln(2) хешей.
+        long words = Math.max(1, (long) Math.ceil(-expectedInsertions * Math.log(fpp)
+                / (Math.log(2) * Math.log(2)) / Long.SIZE));
+        this.bits = new AtomicLongArray(Math.toIntExact(words));
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int lastId = 0;
+        long count = 0;
+        List<UserEmail> batch;
+        do {
+            batch = userRepository.findEmailsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (UserEmail user : batch) {
+                add(user.email());
+                lastId = user.id();
+            }
+            count += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        loaded = true;
+        log.info("Фильтр email загружен: {} адресов, {} бит, {} хешей", count, bitCount, hashCount);
+    }
+
+    public void add(String email) {
+        long hash = hash(email);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            long mask = 1L << bit;
+            bits.getAndUpdate((int) (bit >>> 6), word -> word | mask);
+        }
+    }
+
+    /**
+     * false означает, что email точно не встречался. До окончания загрузки при старте всегда true.
+     */
+    public boolean mightContain(String email) {
+        boolean result = !loaded || contains(email);
+        meterRegistry.ifAvailable(registry -> registry.counter("shareit.users.email-checks",
+                "result", result ? "query" : "skipped").increment());
+        return result;
+    }
+
+    private boolean contains(String email) {
+        long hash = hash(email);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a по символам с перемешиванием: второй хеш для двойного хеширования получается из первого.
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -17,4 +18,9 @@ public class User {
     private Integer id;
     private String name;
     private String email;
-}
\ No newline at end of file
+
+    // Пользователь помечается сразу при запросе на удаление, а строки удаляются позже, см. UserDeletionProcessor.
+    // Сущность попадает в ответы бронирований, поэтому признак из JSON исключен.
+    @JsonIgnore
+    private boolean deleted;
+}
@@ -19,7 +19,8 @@ public class UserController {
     @PostMapping
     public UserDto createUser(@RequestBody UserDto userDto) {
         UserDto createdUserDto = userService.createUser(userDto);
-        log.info("Добавлен новый пользователь: {}", createdUserDto);
+        log.info("Добавлен новый пользователь с id: {}", createdUserDto.getId());
+        log.debug("Добавлен новый пользователь: {}", createdUserDto);
         return createdUserDto;
     }
 
@@ -27,27 +28,49 @@ public class UserController {
     public UserDto updateUser(@PathVariable int userId,
                               @RequestBody UserDto userDto) {
         UserDto updatingUserDto = userService.updateUser(userId, userDto);
-        log.info("Обновлен пользователь: {}", updatingUserDto);
+        log.info("Обновлен пользователь с id: {}", userId);
+        log.debug("Обновлен пользователь: {}", updatingUserDto);
         return updatingUserDto;
     }
 
     @GetMapping("/{userId}")
     public UserDto getUserById(@PathVariable int userId) {
         UserDto gettingUserDto = userService.getUserById(userId);
-        log.info("Получен пользователь: {}", gettingUserDto);
+        log.info("Получен пользователь с id: {}", userId);
+        log.debug("Получен пользователь: {}", gettingUserDto);
         return gettingUserDto;
     }
 
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        List<UserDto> allUsersDto = userService.getUsers();
-        log.info("Список всех пользователей: {}", allUsersDto);
-        return allUsersDto;
+    public List<UserDto> getUsers(@RequestParam(defaultValue = "0") int from,
+                                  @RequestParam(defaultValue = "10") int size,
+                                  @RequestParam(required = false) Integer after,
+                                  @RequestParam(required = false) String email,
+                                  @RequestParam(required = false) String name) {
+        List<UserDto> usersDto = userService.getUsers(UserQuery.builder()
+                .from(from)
+                .size(size)
+                .after(after)
+                .email(email)
+                .name(name)
+                .build());
+        log.info("Получен список пользователей, количество: {}", usersDto.size());
+        log.debug("Список пользователей: {}", usersDto);
+        return usersDto;
     }
 
     @DeleteMapping("/{userId}")
-    public void deleteUser(@PathVariable int userId) {
-        userService.deleteUser(userId);
-        log.info("Удален пользователь с id: {}", userId);
+    public UserDeletionDto deleteUser(@PathVariable int userId) {
+        UserDeletionDto deletionDto = userService.deleteUser(userId);
+        log.info("Пользователь с id: {} помечен удаленным, данные будут удалены в фоне", userId);
+        return deletionDto;
+    }
+
+    @GetMapping("/{userId}/deletion")
+    public UserDeletionDto getDeletion(@PathVariable int userId) {
+        UserDeletionDto deletionDto = userService.getDeletion(userId);
+        log.info("Получен ход удаления пользователя с id: {}", userId);
+        log.debug("Ход удаления пользователя: {}", deletionDto);
+        return deletionDto;
     }
 }
\ No newline at end of file
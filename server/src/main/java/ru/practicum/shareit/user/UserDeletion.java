@@ -0,0 +1,38 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Задание на удаление пользователя и его ход. Строка остается после удаления пользователя,
+ * поэтому у user_id нет внешнего ключа.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_deletions")
+public class UserDeletion {
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Enumerated(EnumType.STRING)
+    private UserDeletionStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private UserDeletionStage stage;
+
+    @Column(name = "deleted_rows")
+    private long deletedRows;
+
+    private LocalDateTime requested;
+
+    private LocalDateTime finished;
+}
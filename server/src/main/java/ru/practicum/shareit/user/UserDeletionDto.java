@@ -0,0 +1,22 @@
+package ru.practicum.shareit.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDeletionDto {
+
+    private Integer userId;
+    private UserDeletionStatus status;
+    private UserDeletionStage stage;
+    private long deletedRows;
+    private LocalDateTime requested;
+    private LocalDateTime finished;
+}
@@ -0,0 +1,250 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingSlot;
+import ru.practicum.shareit.booking.BookingStateCache;
+import ru.practicum.shareit.booking.BookingViewRepository;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.comment.CommentRef;
+import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.comment.ItemCommentStatsRepository;
+import ru.practicum.shareit.item.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.RequestMatchRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Удаляет помеченных пользователей вместе с зависимыми строками. Каждая транзакция удаляет не больше
+ * batchSize строк одного вида и записывает ход в user_deletions, поэтому удаление пользователя
+ * с большим числом вещей и бронирований не держит долгих блокировок и продолжается после перезапуска
+ * с того же шага.
+ * <p>
+ * Вместе с пользователем удаляется то же, что удалил бы каскад внешних ключей: его бронирования,
+ * комментарии, вещи и запросы, а также вещи, созданные в ответ на его запросы, с их бронированиями
+ * и комментариями. Строки, добавленные во время удаления, удалит каскад на последнем шаге.
+ * <p>
+ * Об удаленных бронированиях, вещах, запросах и о самом пользователе в транзакции пачки пишутся
+ * события {@link ChangeType#DELETED}. Комментарии и предложения для запросов событий не имеют.
+ */
+@Slf4j
+public class UserDeletionProcessor {
+
+    private final UserDeletionRepository userDeletionRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final BookingStateCache bookingStateCache;
+    private final BookingMapper bookingMapper;
+    private final CommentRepository commentRepository;
+    private final ItemCommentStatsRepository itemCommentStatsRepository;
+    private final ItemRepository itemRepository;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemRequestRepository itemRequestRepository;
+    private final RequestMatchRepository requestMatchRepository;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int batchSize;
+
+    public UserDeletionProcessor(UserDeletionRepository userDeletionRepository,
+                                 UserRepository userRepository,
+                                 BookingRepository bookingRepository,
+                                 BookingViewRepository bookingViewRepository,
+                                 BookingStateCache bookingStateCache,
+                                 BookingMapper bookingMapper,
+                                 CommentRepository commentRepository,
+                                 ItemCommentStatsRepository itemCommentStatsRepository,
+                                 ItemRepository itemRepository,
+                                 ItemAvailabilityIndex itemAvailabilityIndex,
+                                 ItemRequestRepository itemRequestRepository,
+                                 RequestMatchRepository requestMatchRepository,
+                                 OutboxWriter outboxWriter,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 int batchSize) {
+        this.userDeletionRepository = userDeletionRepository;
+        this.userRepository = userRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingViewRepository = bookingViewRepository;
+        this.bookingStateCache = bookingStateCache;
+        this.bookingMapper = bookingMapper;
+        this.commentRepository = commentRepository;
+        this.itemCommentStatsRepository = itemCommentStatsRepository;
+        this.itemRepository = itemRepository;
+        this.itemAvailabilityIndex = itemAvailabilityIndex;
+        this.itemRequestRepository = itemRequestRepository;
+        this.requestMatchRepository = requestMatchRepository;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.users.deletion.tick:PT1S}")
+    public void tick() {
+        try {
+            userDeletionRepository.findUnfinishedUserIds().forEach(this::process);
+        } catch (RuntimeException e) {
+            log.error("Не удалось удалить пользователей, повтор на следующем проходе", e);
+        }
+    }
+
+    void process(int userId) {
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> deleteBatch(userId));
+        } while (deleted != null && deleted > 0);
+    }
+
+    /**
+     * Выполняет очередной шаг удаления: удаляет пачку строк текущего вида или, если их не осталось,
+     * переходит к следующему шагу. Возвращает число удаленных строк, 0 - когда удаление завершено.
+     */
+    private int deleteBatch(int userId) {
+        UserDeletion deletion = userDeletionRepository.findByIdForUpdate(userId).orElse(null);
+        if (deletion == null || deletion.getStatus() == UserDeletionStatus.DONE) {
+            return 0;
+        }
+        while (true) {
+            int deleted = deleteStage(deletion.getStage(), userId);
+            if (deleted > 0) {
+                deletion.setStatus(deletion.getStage() == UserDeletionStage.USER
+                        ? UserDeletionStatus.DONE
+                        : UserDeletionStatus.IN_PROGRESS);
+                deletion.setDeletedRows(deletion.getDeletedRows() + deleted);
+                if (deletion.getStatus() == UserDeletionStatus.DONE) {
+                    deletion.setFinished(LocalDateTime.now());
+                    log.info("Удален пользователь с id: {}, удалено строк: {}", userId, deletion.getDeletedRows());
+                }
+                meterRegistry.ifAvailable(registry -> registry.counter("shareit.users.deletion.rows",
+                        "stage", deletion.getStage().name()).increment(deleted));
+                return deleted;
+            }
+            if (deletion.getStage() == UserDeletionStage.USER) {
+                // Пользователя уже нет: строку удалили в обход задания.
+                deletion.setStatus(UserDeletionStatus.DONE);
+                deletion.setFinished(LocalDateTime.now());
+                return 0;
+            }
+            deletion.setStage(UserDeletionStage.values()[deletion.getStage().ordinal() + 1]);
+            log.debug("Удаление пользователя с id {} перешло к шагу {}", userId, deletion.getStage());
+        }
+    }
+
+    private int deleteStage(UserDeletionStage stage, int userId) {
+        PageRequest batch = PageRequest.of(0, batchSize);
+        return switch (stage) {
+            case BOOKINGS -> deleteBookings(firstNonEmpty(
+                    () -> bookingViewRepository.findSlotsByBookerId(userId, batch),
+                    () -> bookingViewRepository.findSlotsByOwnerId(userId, batch),
+                    () -> bookingViewRepository.findSlotsByItemRequesterId(userId, batch)));
+            case COMMENTS -> deleteComments(firstNonEmpty(
+                    () -> commentRepository.findRefsByAuthorId(userId, batch),
+                    () -> commentRepository.findRefsByItemOwnerId(userId, batch),
+                    () -> commentRepository.findRefsByItemRequesterId(userId, batch)));
+            case ITEMS -> deleteItems(firstNonEmpty(
+                    () -> itemRepository.findIdsByOwnerId(userId, batch),
+                    () -> itemRepository.findIdsByRequesterId(userId, batch)));
+            case REQUEST_MATCHES -> deleteByIds(requestMatchRepository,
+                    requestMatchRepository.findIdsByRequesterId(userId, batch));
+            case REQUESTS -> deleteRequests(itemRequestRepository.findIdsByRequesterId(userId, batch));
+            case USER -> deleteUser(userId);
+        };
+    }
+
+    private int deleteBookings(List<BookingSlot> slots) {
+        if (slots.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = slots.stream().map(BookingSlot::bookingId).toList();
+        // Диапазон дат начала пачки позволяет PostgreSQL не просматривать остальные секции бронирований.
+        LocalDateTime from = slots.stream().map(BookingSlot::start).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = slots.stream().map(BookingSlot::start).max(Comparator.naturalOrder()).orElseThrow();
+        bookingViewRepository.deleteAllByIdInBatch(ids);
+        bookingRepository.deleteAllByIdInAndStartBetween(ids, from, to);
+
+        slots.stream()
+                .collect(Collectors.groupingBy(BookingSlot::ownerId,
+                        Collectors.mapping(BookingSlot::bookerId, Collectors.toSet())))
+                .forEach((ownerId, bookerIds) -> bookingStateCache.invalidate(bookerIds, ownerId));
+        itemAvailabilityIndex.invalidate(slots.stream().map(BookingSlot::itemId).collect(Collectors.toSet()));
+        slots.forEach(slot -> outboxWriter.append(AggregateType.BOOKING, slot.bookingId(), ChangeType.DELETED,
+                bookingMapper.toDeletedBookingDto(slot)));
+        return ids.size();
+    }
+
+    private int deleteComments(List<CommentRef> comments) {
+        if (comments.isEmpty()) {
+            return 0;
+        }
+        commentRepository.deleteAllByIdInBatch(comments.stream().map(CommentRef::id).toList());
+        // Сводки вещей, которые удаляются вместе с пользователем, удалит каскад; остальные пересчитываются.
+        Set<Integer> itemIds = comments.stream().map(CommentRef::itemId).collect(Collectors.toSet());
+        itemCommentStatsRepository.recountForItems(itemIds);
+        return comments.size();
+    }
+
+    private int deleteItems(List<Integer> itemIds) {
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        // Каскад удаляет сводки комментариев и предложения для запросов: у вещи их не больше нескольких.
+        itemRepository.deleteAllByIdInBatch(itemIds);
+        itemAvailabilityIndex.invalidate(itemIds);
+        itemIds.forEach(itemId -> outboxWriter.append(AggregateType.ITEM, itemId, ChangeType.DELETED,
+                ItemDtoResponse.builder().id(itemId).build()));
+        return itemIds.size();
+    }
+
+    private int deleteRequests(List<Integer> requestIds) {
+        int deleted = deleteByIds(itemRequestRepository, requestIds);
+        requestIds.forEach(requestId -> outboxWriter.append(AggregateType.REQUEST, requestId, ChangeType.DELETED,
+                ItemRequestDto.builder().id(requestId).build()));
+        return deleted;
+    }
+
+    private int deleteUser(int userId) {
+        int deleted = userRepository.deleteByUserId(userId);
+        if (deleted > 0) {
+            outboxWriter.append(AggregateType.USER, userId, ChangeType.DELETED, UserDto.builder().id(userId).build());
+        }
+        return deleted;
+    }
+
+    private static int deleteByIds(JpaRepository<?, Integer> repository, List<Integer> ids) {
+        if (!ids.isEmpty()) {
+            repository.deleteAllByIdInBatch(ids);
+        }
+        return ids.size();
+    }
+
+    @SafeVarargs
+    private static <T> List<T> firstNonEmpty(Supplier<List<T>>... sources) {
+        for (Supplier<List<T>> source : sources) {
+            List<T> batch = source.get();
+            if (!batch.isEmpty()) {
+                return batch;
+            }
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserDeletionRepository extends JpaRepository<UserDeletion, Integer> {
+
+    @Query("""
+            SELECT d.userId
+            FROM UserDeletion AS d
+            WHERE d.status <> ru.practicum.shareit.user.UserDeletionStatus.DONE
+            ORDER BY d.requested
+            """)
+    List<Integer> findUnfinishedUserIds();
+
+    // Блокировка не дает двум экземплярам сервера обрабатывать одного пользователя одновременно.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT d
+            FROM UserDeletion AS d
+            WHERE d.userId = :userId
+            """)
+    Optional<UserDeletion> findByIdForUpdate(int userId);
+}
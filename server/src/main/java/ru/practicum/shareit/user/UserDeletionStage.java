@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user;
+
+/**
+ * Шаги удаления пользователя в порядке выполнения. Сначала удаляются строки, которых у одного
+ * пользователя может быть больше всего, чтобы каскад при удалении вещей, запросов и самого
+ * пользователя затрагивал лишь немногие оставшиеся строки.
+ */
+public enum UserDeletionStage {
+    BOOKINGS,
+    COMMENTS,
+    ITEMS,
+    REQUEST_MATCHES,
+    REQUESTS,
+    USER
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.user;
+
+public record UserEmail(Integer id, String email) {
+}
\ No newline at end of file
@@ -18,7 +18,18 @@ public class UserMapper {
     }
 
     public User toUser(UserDto userDto) {
-        return new User(userDto.getId(), userDto.getName(), userDto.getEmail());
+        return new User(userDto.getId(), userDto.getName(), userDto.getEmail(), false);
+    }
+
+    public UserDeletionDto toUserDeletionDto(UserDeletion deletion) {
+        return UserDeletionDto.builder()
+                .userId(deletion.getUserId())
+                .status(deletion.getStatus())
+                .stage(deletion.getStage())
+                .deletedRows(deletion.getDeletedRows())
+                .requested(deletion.getRequested())
+                .finished(deletion.getFinished())
+                .build();
     }
 
     public List<UserDto> usersToDto(List<User> users) {
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Параметры выборки списка пользователей. Если задан after, выдача начинается с пользователя,
+ * следующего за ним по id, и страницы не сдвигаются при добавлении и удалении пользователей.
+ * Необязательные email и name оставляют пользователей, у которых эти поля начинаются с заданных строк.
+ */
+@Getter
+@Builder
+@ToString
+public class UserQuery {
+    @Builder.Default
+    private final int from = 0;
+    @Builder.Default
+    private final int size = 10;
+    private final Integer after;
+    private final String email;
+    private final String name;
+}
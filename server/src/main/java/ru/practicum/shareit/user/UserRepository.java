@@ -1,8 +1,39 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    Optional<User> findByIdAndDeletedFalse(int userId);
+
+    @Query("""
+            SELECT new ru.practicum.shareit.user.UserEmail(u.id, u.email)
+            FROM User AS u
+            WHERE u.id > ?1
+            AND u.deleted = false
+            ORDER BY u.id
+            """)
+    List<UserEmail> findEmailsAfter(int userId, Pageable pageable);
+
+    // Пустой префикс подходит любому значению, поэтому один запрос обслуживает все сочетания фильтров.
+    // Список вместо Page: счетчик всех строк на каждой странице дорог для большой таблицы.
+    List<User> findAllByEmailStartingWithAndNameStartingWithAndIdGreaterThanAndDeletedFalse(String emailPrefix,
+                                                                                           String namePrefix,
+                                                                                           int userId,
+                                                                                           Pageable pageable);
+
+    @Modifying
+    @Query("""
+            DELETE FROM User AS u
+            WHERE u.id = :userId
+            """)
+    int deleteByUserId(int userId);
+}
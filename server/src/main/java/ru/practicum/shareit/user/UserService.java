@@ -15,8 +15,10 @@ public interface UserService {
 
     UserDto getUserById(int userId);
 
-    List<UserDto> getUsers();
+    List<UserDto> getUsers(UserQuery query);
 
     @Transactional
-    void deleteUser(int userId);
+    UserDeletionDto deleteUser(int userId);
+
+    UserDeletionDto getDeletion(int userId);
 }
\ No newline at end of file
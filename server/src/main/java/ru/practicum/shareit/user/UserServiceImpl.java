@@ -2,24 +2,37 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.OffsetPageRequest;
 import ru.practicum.shareit.exception.DataDuplicationException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
+    private final UserDeletionRepository userDeletionRepository;
     private final UserMapper userMapper;
+    private final EmailBloomFilter emailFilter;
 
     @Override
     public UserDto createUser(UserDto userDto) {
         checkEmail(userDto);
-        User user = userRepository.save(userMapper.toUser(userDto));
+        User user = saveUser(userMapper.toUser(userDto));
+        emailFilter.add(user.getEmail());
         return userMapper.toUserDto(user);
     }
 
@@ -27,7 +40,8 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(int userId, UserDto userDto) {
         User oldUser = getUser(userId);
 
-        if (userDto.getEmail() != null && !userDto.getEmail().equals(oldUser.getEmail())) {
+        boolean emailChanged = userDto.getEmail() != null && !userDto.getEmail().equals(oldUser.getEmail());
+        if (emailChanged) {
             checkEmail(userDto);
         }
 
@@ -38,7 +52,10 @@ public class UserServiceImpl implements UserService {
             oldUser.setEmail(userDto.getEmail());
         }
 
-        User user = userRepository.save(oldUser);
+        User user = saveUser(oldUser);
+        if (emailChanged) {
+            emailFilter.add(user.getEmail());
+        }
         return userMapper.toUserDto(user);
     }
 
@@ -48,25 +65,79 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserDto> getUsers() {
-        return userMapper.usersToDto(userRepository.findAll());
+    public List<UserDto> getUsers(UserQuery query) {
+        if (query.getFrom() < 0 || query.getSize() <= 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным, а size должен быть больше 0");
+        }
+        if (query.getSize() > MAX_PAGE_SIZE) {
+            throw new ValidationException("Страница не может содержать больше " + MAX_PAGE_SIZE + " пользователей");
+        }
+        log.info("Запрос пользователей: {}", query);
+
+        List<User> users = userRepository
+                .findAllByEmailStartingWithAndNameStartingWithAndIdGreaterThanAndDeletedFalse(
+                Objects.requireNonNullElse(query.getEmail(), ""),
+                Objects.requireNonNullElse(query.getName(), ""),
+                Objects.requireNonNullElse(query.getAfter(), 0),
+                OffsetPageRequest.of(query.getFrom(), query.getSize(), Sort.by("id")));
+        return userMapper.usersToDto(users);
     }
 
+    /**
+     * Помечает пользователя удаленным, освобождает его email и ставит задание на удаление его данных.
+     * С этого момента пользователь не находится, а строки удаляет {@link UserDeletionProcessor} пачками.
+     */
     @Override
-    public void deleteUser(int userId) {
-        getUser(userId);
-        userRepository.deleteById(userId);
+    public UserDeletionDto deleteUser(int userId) {
+        User user = getUser(userId);
+        user.setDeleted(true);
+        user.setEmail(null);
+        UserDeletion deletion = userDeletionRepository.save(UserDeletion.builder()
+                .userId(userId)
+                .status(UserDeletionStatus.PENDING)
+                .stage(UserDeletionStage.BOOKINGS)
+                .requested(LocalDateTime.now())
+                .build());
+        return userMapper.toUserDeletionDto(deletion);
+    }
+
+    @Override
+    public UserDeletionDto getDeletion(int userId) {
+        return userDeletionRepository.findById(userId)
+                .map(userMapper::toUserDeletionDto)
+                .orElseThrow(() -> new NotFoundException("Удаление пользователя с id - " + userId + " не найдено"));
     }
 
     private User getUser(int userId) {
-        return userRepository.findById(userId)
+        return userRepository.findByIdAndDeletedFalse(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id - " + userId + " не найден"));
     }
 
+    // Новый адрес, которого нет в фильтре, проверяется только ограничением уникальности при сохранении.
     private void checkEmail(UserDto userDto) {
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            log.error("Данный email:{} уже используется", userDto.getEmail());
-            throw new DataDuplicationException("Данный email:" + userDto.getEmail() + " уже используется");
+        if (emailFilter.mightContain(userDto.getEmail()) && userRepository.existsByEmail(userDto.getEmail())) {
+            throw emailInUse(userDto.getEmail());
+        }
+    }
+
+    /**
+     * Сохраняет пользователя сразу, чтобы нарушение уникальности email, в том числе при одновременной
+     * регистрации, стало ошибкой 409 здесь, а не при коммите.
+     */
+    private User saveUser(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                throw emailInUse(user.getEmail());
+            }
+            throw e;
         }
     }
+
+    private DataDuplicationException emailInUse(String email) {
+        log.error("Данный email:{} уже используется", email);
+        return new DataDuplicationException("Данный email:" + email + " уже используется");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+CREATE SEQUENCE IF NOT EXISTS bookings_id_seq AS INTEGER;
+
+CREATE TABLE IF NOT EXISTS bookings
+(
+    id         INTEGER NOT NULL DEFAULT nextval('bookings_id_seq'),
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE,
+    item_id    INTEGER REFERENCES items (id) ON DELETE CASCADE,
+    booker_id  INTEGER REFERENCES users (id) ON DELETE CASCADE,
+    status     VARCHAR(10) NOT NULL,
+    PRIMARY KEY (id, start_date)
+) PARTITION BY RANGE (start_date);
+
+ALTER SEQUENCE bookings_id_seq OWNED BY bookings.id;
+
+CREATE TABLE IF NOT EXISTS bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_booker_id_end_date_idx ON bookings (item_id, booker_id, end_date);
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_date_end_date_idx ON bookings (item_id, start_date, end_date)
+    WHERE status = 'APPROVED';
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS bookings
+(
+    id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date   TIMESTAMP WITHOUT TIME ZONE,
+    item_id    INTEGER REFERENCES items (id) ON DELETE CASCADE,
+    booker_id  INTEGER REFERENCES users (id) ON DELETE CASCADE,
+    status     VARCHAR(10) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_booker_id_end_date_idx ON bookings (item_id, booker_id, end_date);
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_date_end_date_idx ON bookings (item_id, start_date, end_date);
@@ -0,0 +1,6 @@
+-- Дополнения к schema.sql, которые H2 не поддерживает.
+
+-- Поиск пользователей по началу email и имени. Обычный индекс не подходит для LIKE 'префикс%'
+-- при сортировке по правилам языка, поэтому индексы строятся по побайтовому сравнению.
+CREATE INDEX IF NOT EXISTS users_email_pattern_idx ON users (email varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS users_name_pattern_idx ON users (name varchar_pattern_ops);
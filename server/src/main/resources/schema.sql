@@ -1,4 +1,10 @@
+DROP TABLE IF EXISTS user_deletions;
+DROP TABLE IF EXISTS outbox_cursors;
+DROP TABLE IF EXISTS outbox_events;
+DROP TABLE IF EXISTS request_matches;
+DROP TABLE IF EXISTS item_comment_stats;
 DROP TABLE IF EXISTS comments;
+DROP TABLE IF EXISTS booking_views;
 DROP TABLE IF EXISTS bookings;
 DROP TABLE IF EXISTS items;
 DROP TABLE IF EXISTS requests;
@@ -6,11 +12,18 @@ DROP TABLE IF EXISTS users;
 
 CREATE TABLE IF NOT EXISTS users
 (
-    id    INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    name  VARCHAR(50) NOT NULL,
-    email VARCHAR(50) NOT NULL UNIQUE
+    id      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(50) NOT NULL,
+    email   VARCHAR(50) UNIQUE,
+    deleted BOOLEAN     NOT NULL DEFAULT FALSE,
+    -- Удаленный пользователь освобождает email, чтобы адрес можно было зарегистрировать снова.
+    CONSTRAINT users_email_check CHECK (deleted OR email IS NOT NULL)
 );
 
+-- Поиск пользователей по началу имени; по началу email ищет индекс ограничения уникальности.
+-- В PostgreSQL для LIKE 'префикс%' к ним добавляются индексы из schema-postgresql.sql.
+CREATE INDEX IF NOT EXISTS users_name_idx ON users (name);
+
 CREATE TABLE IF NOT EXISTS requests
 (
     id           INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -29,16 +42,6 @@ CREATE TABLE IF NOT EXISTS items
     request_id  INTEGER REFERENCES requests (id) ON DELETE CASCADE
 );
 
-CREATE TABLE IF NOT EXISTS bookings
-(
-    id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    start_date TIMESTAMP WITHOUT TIME ZONE,
-    end_date   TIMESTAMP WITHOUT TIME ZONE,
-    item_id    INTEGER REFERENCES items (id) ON DELETE CASCADE,
-    booker_id  INTEGER REFERENCES users (id) ON DELETE CASCADE,
-    status     VARCHAR(10) NOT NULL
-);
-
 CREATE TABLE IF NOT EXISTS comments
 (
     id        INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -46,4 +49,88 @@ CREATE TABLE IF NOT EXISTS comments
     item_id   INTEGER REFERENCES items (id) ON DELETE CASCADE,
     author_id INTEGER REFERENCES users (id) ON DELETE CASCADE,
     created   TIMESTAMP WITHOUT TIME ZONE
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS booking_views
+(
+    booking_id INTEGER PRIMARY KEY,
+    owner_id   INTEGER     NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    booker_id  INTEGER     NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    item_id    INTEGER     NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+    item_name  VARCHAR(50) NOT NULL,
+    status     VARCHAR(10) NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date   TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS booking_views_owner_id_start_date_idx ON booking_views (owner_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS booking_views_booker_id_start_date_idx ON booking_views (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS booking_views_owner_id_status_idx ON booking_views (owner_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS booking_views_booker_id_status_idx ON booking_views (booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS booking_views_item_id_idx ON booking_views (item_id);
+CREATE INDEX IF NOT EXISTS booking_views_start_date_idx ON booking_views (start_date);
+CREATE INDEX IF NOT EXISTS booking_views_end_date_idx ON booking_views (end_date);
+CREATE INDEX IF NOT EXISTS booking_views_status_start_date_idx ON booking_views (status, start_date);
+
+CREATE INDEX IF NOT EXISTS items_request_id_idx ON items (request_id);
+CREATE INDEX IF NOT EXISTS requests_requester_id_idx ON requests (requester_id);
+CREATE INDEX IF NOT EXISTS comments_item_id_created_idx ON comments (item_id, created DESC);
+CREATE INDEX IF NOT EXISTS comments_author_id_idx ON comments (author_id);
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id);
+
+CREATE TABLE IF NOT EXISTS item_comment_stats
+(
+    item_id         INTEGER PRIMARY KEY REFERENCES items (id) ON DELETE CASCADE,
+    comment_count   BIGINT NOT NULL DEFAULT 0,
+    last_comment_at TIMESTAMP WITHOUT TIME ZONE
+);
+
+-- Строка статистики создается в одной транзакции с вещью. Вещи, у которых ее еще нет, получают ее здесь,
+-- поэтому добавление комментария только увеличивает счетчик и никогда не вставляет строку.
+INSERT INTO item_comment_stats (item_id, comment_count, last_comment_at)
+SELECT i.id,
+       (SELECT COUNT(c.id) FROM comments AS c WHERE c.item_id = i.id),
+       (SELECT MAX(c.created) FROM comments AS c WHERE c.item_id = i.id)
+FROM items AS i
+WHERE NOT EXISTS (SELECT 1 FROM item_comment_stats AS s WHERE s.item_id = i.id);
+
+CREATE TABLE IF NOT EXISTS outbox_events
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id   INTEGER     NOT NULL,
+    event_type     VARCHAR(20) NOT NULL,
+    payload        TEXT        NOT NULL,
+    created        TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+-- Позиция общих подписчиков в outbox_events: id последнего переданного им события.
+CREATE TABLE IF NOT EXISTS outbox_cursors
+(
+    consumer      VARCHAR(50) PRIMARY KEY,
+    last_event_id BIGINT      NOT NULL
+);
+
+INSERT INTO outbox_cursors (consumer, last_event_id) VALUES ('relay', 0);
+
+CREATE TABLE IF NOT EXISTS request_matches
+(
+    id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    request_id INTEGER          NOT NULL REFERENCES requests (id) ON DELETE CASCADE,
+    item_id    INTEGER          NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+    score      DOUBLE PRECISION NOT NULL,
+    created    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    UNIQUE (request_id, item_id)
+);
+
+CREATE INDEX IF NOT EXISTS request_matches_item_id_idx ON request_matches (item_id);
+
+CREATE TABLE IF NOT EXISTS user_deletions
+(
+    user_id      INTEGER PRIMARY KEY,
+    status       VARCHAR(20) NOT NULL,
+    stage        VARCHAR(20) NOT NULL,
+    deleted_rows BIGINT      NOT NULL DEFAULT 0,
+    requested    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    finished     TIMESTAMP WITHOUT TIME ZONE
+);
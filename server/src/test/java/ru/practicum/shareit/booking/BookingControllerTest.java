@@ -11,7 +11,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.Constants;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForList;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.item.model.Item;
@@ -28,6 +31,7 @@ import java.util.List;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +46,9 @@ class BookingControllerTest {
     @Mock
     private ItemService itemService;
 
+    @Mock
+    private OwnerBookingStream ownerBookingStream;
+
     @InjectMocks
     private BookingController controller;
 
@@ -50,6 +57,7 @@ class BookingControllerTest {
 
     private BookingDtoRequest bookingDtoRequest;
     private BookingDtoResponse bookingDtoResponse;
+    private BookingDtoForList bookingDtoForList;
 
     private final String url = "/bookings";
     public static final String X_SHARER_USER_ID = Constants.X_SHARER_USER_ID;
@@ -98,6 +106,15 @@ class BookingControllerTest {
                 .status(BookingStatus.WAITING)
                 .build();
 
+        bookingDtoForList = BookingDtoForList.builder()
+                .id(bookingId)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .item(new BookingDtoForList.ItemShort(2, "Дрель"))
+                .booker(new BookingDtoForList.BookerShort(userId))
+                .build();
+
         userService.createUser(userDto);
         itemService.createItem(userId, itemDtoRequest);
     }
@@ -152,6 +169,27 @@ class BookingControllerTest {
         verify(service, times(1)).approvedBooking(userId, bookingId, false);
     }
 
+    @Test
+    void approvedBookings_whenBatchApproved_thenReturnResults() throws Exception {
+        List<Integer> bookingIds = List.of(bookingId, 2);
+        List<BookingApprovalResultDto> results = List.of(
+                BookingApprovalResultDto.builder().bookingId(bookingId).status(BookingStatus.APPROVED).build(),
+                BookingApprovalResultDto.builder().bookingId(2).error("Бронирование с id - 2 не найдено").build());
+        when(service.approvedBookings(userId, bookingIds, true)).thenReturn(results);
+
+        mvc.perform(patch(url + "/batch")
+                        .header(X_SHARER_USER_ID, userId)
+                        .param("approved", "true")
+                        .content(mapper.writeValueAsString(bookingIds))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(results)));
+
+        verify(service, times(1)).approvedBookings(userId, bookingIds, true);
+    }
+
     @Test
     void getBookingById_whenBookingFound_thenReturnBooking() throws Exception {
         when(service.getBookingById(userId, bookingId)).thenReturn(bookingDtoResponse);
@@ -170,7 +208,7 @@ class BookingControllerTest {
 
     @Test
     void getBookingsByBooker_whenBookingFound_thenReturnBooking() throws Exception {
-        when(service.getBookingsByBooker(userId, State.ALL)).thenReturn(List.of(bookingDtoResponse));
+        when(service.getBookings(any(BookingQuery.class))).thenReturn(List.of(bookingDtoResponse));
 
         mvc.perform(get(url)
                         .header(X_SHARER_USER_ID, userId)
@@ -182,16 +220,20 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDtoResponse))));
 
-        verify(service, times(1)).getBookingsByBooker(userId, State.ALL);
+        verify(service, times(1)).getBookings(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getUserId() == userId && query.getState() == State.ALL && query.getSize() == 10));
     }
 
     @Test
     void getBookingsByOwner_whenBookingFound_thenReturnBooking() throws Exception {
-        when(service.getBookingsByOwner(userId, State.ALL)).thenReturn(List.of(bookingDtoResponse));
+        when(service.getBookings(any(BookingQuery.class))).thenReturn(List.of(bookingDtoResponse));
 
         mvc.perform(get(url + "/owner")
                         .header(X_SHARER_USER_ID, userId)
                         .param("state", String.valueOf(State.ALL))
+                        .param("itemId", "3")
+                        .param("rangeStart", "2026-01-01T00:00:00")
+                        .param("from", "20")
                         .content(mapper.writeValueAsString(List.of(bookingDtoResponse)))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -199,6 +241,37 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDtoResponse))));
 
-        verify(service, times(1)).getBookingsByOwner(userId, State.ALL);
+        verify(service, times(1)).getBookings(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getUserId() == userId && query.getState() == State.ALL && query.getItemId() == 3
+                && LocalDateTime.of(2026, 1, 1, 0, 0).equals(query.getRangeStart())
+                && query.getRangeEnd() == null && query.getFrom() == 20 && query.getSize() == 10));
+    }
+
+    @Test
+    void getCompactBookingsByOwner_whenBookingFound_thenReturnCompactBooking() throws Exception {
+        when(service.getCompactBookings(any(BookingQuery.class))).thenReturn(List.of(bookingDtoForList));
+
+        mvc.perform(get(url + "/owner/compact")
+                        .header(X_SHARER_USER_ID, userId)
+                        .param("state", String.valueOf(State.WAITING))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDtoForList))));
+
+        verify(service, times(1)).getCompactBookings(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getUserId() == userId && query.getState() == State.WAITING));
+        verify(service, never()).getBookings(any(BookingQuery.class));
+    }
+
+    @Test
+    void streamBookingsByOwner_whenSubscribed_thenAsyncStarted() throws Exception {
+        when(ownerBookingStream.subscribe(userId)).thenReturn(new SseEmitter());
+
+        mvc.perform(get(url + "/owner/stream")
+                        .header(X_SHARER_USER_ID, userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(ownerBookingStream, times(1)).subscribe(userId);
     }
-}
\ No newline at end of file
+}
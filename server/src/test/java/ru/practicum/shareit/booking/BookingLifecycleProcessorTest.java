@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest
+@RecordApplicationEvents
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingLifecycleProcessorTest {
+
+    private final EntityManager em;
+    private final BookingService service;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final BookingStateCache bookingStateCache;
+    private final BookingMapper bookingMapper;
+    private final OutboxWriter outboxWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private BookingLifecycleProcessor processor;
+    private LocalDateTime now;
+    private int ownerId;
+    private int bookerId;
+    private int itemId;
+
+    @BeforeEach
+    void setUp() {
+        processor = new BookingLifecycleProcessor(bookingRepository, bookingViewRepository, bookingStateCache,
+                bookingMapper, outboxWriter, eventPublisher, new TransactionTemplate(transactionManager),
+                meterRegistry, Duration.ofMinutes(10), 100);
+        now = LocalDateTime.now();
+
+        ownerId = userService.createUser(new UserDto(null, "Owner Name", "owner@email.com")).getId();
+        bookerId = userService.createUser(new UserDto(null, "Booker Name", "booker@email.com")).getId();
+        itemId = itemService.createItem(ownerId, ItemDtoRequest.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .build()).getId();
+    }
+
+    @Test
+    void process_whenStartAndEndPassed_thenWaitingExpiredAndApprovedEventsPublished() {
+        final int waitingId = createBooking(now.plusMinutes(1), now.plusMinutes(2));
+        final int approvedId = createBooking(now.plusMinutes(1), now.plusMinutes(2));
+        service.approvedBooking(ownerId, approvedId, true);
+
+        processor.process(now);
+        assertThat(events.stream(BookingLifecycleEvent.class).toList(), empty());
+
+        processor.process(now.plusMinutes(3));
+
+        assertEquals(BookingStatus.EXPIRED, getStatus(waitingId));
+        assertEquals(BookingStatus.APPROVED, getStatus(approvedId));
+        assertThat(events.stream(BookingLifecycleEvent.class)
+                        .map(event -> event.bookingId() + " " + event.type())
+                        .toList(),
+                containsInAnyOrder(waitingId + " EXPIRED", approvedId + " STARTED", approvedId + " ENDED"));
+
+        // Подтверждение приходит следующим запросом, уже после истечения.
+        em.clear();
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> service.approvedBooking(ownerId, waitingId, true));
+        assertEquals("Бронирование с id - " + waitingId + " истекло: дата начала уже наступила",
+                validationException.getMessage());
+    }
+
+    @Test
+    void process_whenFirstRun_thenOverdueWaitingBookingsExpired() {
+        final int overdueId = createBooking(now.minusHours(2), now.minusHours(1));
+        final int futureId = createBooking(now.plusHours(1), now.plusHours(2));
+
+        processor.process(now);
+
+        assertEquals(BookingStatus.EXPIRED, getStatus(overdueId));
+        assertEquals(BookingStatus.WAITING, getStatus(futureId));
+        assertThat(service.getBookings(BookingQuery.forOwner(ownerId).state(State.WAITING).build()),
+                contains(hasProperty("id", is(futureId))));
+    }
+
+    @Test
+    void process_whenMoreTransitionsAtSameTimeThanBatch_thenAllProcessed() {
+        processor = new BookingLifecycleProcessor(bookingRepository, bookingViewRepository, bookingStateCache,
+                bookingMapper, outboxWriter, eventPublisher, new TransactionTemplate(transactionManager),
+                meterRegistry, Duration.ofMinutes(10), 2);
+        List<Integer> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookingIds.add(createBooking(now.plusMinutes(1), now.plusMinutes(2)));
+        }
+
+        processor.process(now);
+        processor.process(now.plusMinutes(3));
+
+        bookingIds.forEach(bookingId -> assertEquals(BookingStatus.EXPIRED, getStatus(bookingId)));
+    }
+
+    private int createBooking(LocalDateTime start, LocalDateTime end) {
+        return service.createBooking(bookerId, BookingDtoRequest.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+
+    // Скалярный запрос читает статус из базы, минуя закэшированную в контексте сущность.
+    private BookingStatus getStatus(int bookingId) {
+        return em.createQuery("SELECT b.status FROM Booking AS b WHERE b.id = :bookingId", BookingStatus.class)
+                .setParameter("bookingId", bookingId)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.booking;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.BookingPartitionProperties;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Секционирование есть только в схеме PostgreSQL, поэтому тест работает со встроенным PostgreSQL, а не с H2.
+ */
+class BookingPartitionManagerTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private BookingPartitionManager manager;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS archive CASCADE");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"),
+                new ClassPathResource("schema-bookings-postgresql.sql")).execute(dataSource);
+
+        BookingPartitionProperties properties = new BookingPartitionProperties();
+        properties.setMonthsAhead(1);
+        properties.setArchiveAfterMonths(24);
+        manager = new BookingPartitionManager(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), properties);
+
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Owner', 'owner@mail.ru')");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (2, 'Booker', 'booker@mail.ru')");
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner_id) "
+                + "VALUES (1, 'Дрель', 'Аккумуляторная', TRUE, 1)");
+    }
+
+    @Test
+    void maintain_whenRowsInDefaultPartition_thenPartitionsCreatedAndRowsMoved() {
+        YearMonth current = YearMonth.now();
+        YearMonth past = current.minusMonths(2);
+        insertBooking(1, past.atDay(10).atStartOfDay());
+        insertBooking(2, current.plusMonths(1).atDay(5).atStartOfDay());
+
+        manager.maintain();
+
+        assertThat(findPartitions(), containsInAnyOrder(partitionName(past), partitionName(current),
+                partitionName(current.plusMonths(1)), "bookings_default"));
+        assertEquals(0, count("bookings_default"));
+        assertEquals(1, count(partitionName(past)));
+        assertEquals(1, count(partitionName(current.plusMonths(1))));
+        assertEquals(2, count("bookings"));
+    }
+
+    @Test
+    void maintain_whenPartitionOlderThanArchiveAge_thenMovedToArchiveWithViews() {
+        YearMonth old = YearMonth.now().minusMonths(30);
+        insertBooking(1, old.atDay(1).atTime(12, 0));
+
+        manager.maintain();
+
+        assertThat(findPartitions(), not(hasItem(partitionName(old))));
+        assertEquals(1, count("archive." + partitionName(old)));
+        assertEquals(0, count("bookings"));
+        assertEquals(0, count("booking_views"));
+    }
+
+    @Test
+    void maintain_whenRunTwice_thenSecondRunChangesNothing() {
+        insertBooking(1, YearMonth.now().atDay(1).atTime(12, 0));
+        manager.maintain();
+        List<String> partitions = findPartitions();
+
+        manager.maintain();
+
+        assertEquals(partitions, findPartitions());
+        assertEquals(1, count(partitionName(YearMonth.now())));
+    }
+
+    @Test
+    void maintain_whenAnotherInstanceHoldsLock_thenPartitionsLeftUntouched() throws SQLException {
+        insertBooking(1, YearMonth.now().minusMonths(2).atDay(10).atStartOfDay());
+
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + BookingPartitionManager.LOCK_KEY + ")");
+
+            manager.maintain();
+
+            assertThat(findPartitions(), contains("bookings_default"));
+            assertEquals(1, count("bookings_default"));
+
+            statement.execute("SELECT pg_advisory_unlock(" + BookingPartitionManager.LOCK_KEY + ")");
+        }
+
+        manager.maintain();
+
+        assertEquals(0, count("bookings_default"));
+    }
+
+    private void insertBooking(int id, LocalDateTime start) {
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, 1, 2, 'APPROVED')", id, Timestamp.valueOf(start),
+                Timestamp.valueOf(start.plusDays(1)));
+        jdbcTemplate.update("INSERT INTO booking_views (booking_id, owner_id, booker_id, item_id, item_name, "
+                + "status, start_date, end_date) VALUES (?, 1, 2, 1, 'Дрель', 'APPROVED', ?, ?)", id,
+                Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)));
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits AS i
+                JOIN pg_class AS c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'bookings'::regclass
+                ORDER BY c.relname
+                """, String.class);
+    }
+
+    private int count(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("bookings_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForList;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -21,6 +23,7 @@ import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -91,10 +94,11 @@ class BookingServiceImplTest {
         itemDtoResponse = itemService.createItem(ownerId, itemDtoRequest);
         itemId = itemDtoResponse.getId();
 
+        // Решение по бронированию можно принять только до его начала.
         bookingDtoRequest = BookingDtoRequest.builder()
                 .itemId(itemId)
-                .start(start)
-                .end(end)
+                .start(start.plusHours(1))
+                .end(end.plusHours(1))
                 .build();
     }
 
@@ -270,6 +274,112 @@ class BookingServiceImplTest {
         ));
     }
 
+    @Test
+    void approvedBooking_whenStartPassed_thenValidationExceptionThrown() {
+        bookingDtoRequest.setStart(start);
+        bookingDtoRequest.setEnd(end);
+        bookingDtoResponse = service.createBooking(bookerId, bookingDtoRequest);
+
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> service.approvedBooking(ownerId, bookingDtoResponse.getId(), true));
+        assertEquals("Бронирование с id - " + bookingDtoResponse.getId()
+                        + " уже началось: решение по нему принять нельзя", validationException.getMessage());
+    }
+
+    @Test
+    void approvedBooking_whenExpiredAfterCheck_thenExpiredStatusNotOverwritten() {
+        final int bookingId = service.createBooking(bookerId, bookingDtoRequest).getId();
+        // Сущность остается в контексте со статусом WAITING, а в базе бронирование уже истекло.
+        em.find(Booking.class, bookingId);
+        em.createQuery("UPDATE Booking AS b SET b.status = :status WHERE b.id = :bookingId")
+                .setParameter("status", BookingStatus.EXPIRED)
+                .setParameter("bookingId", bookingId)
+                .executeUpdate();
+
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> service.approvedBooking(ownerId, bookingId, true));
+        assertEquals("Статус бронирования с id - " + bookingId + " уже изменился, решение не записано",
+                validationException.getMessage());
+        assertEquals(BookingStatus.EXPIRED, em.createQuery("SELECT b.status FROM Booking AS b "
+                        + "WHERE b.id = :bookingId", BookingStatus.class)
+                .setParameter("bookingId", bookingId)
+                .getSingleResult());
+    }
+
+    @Test
+    void approvedBookings_whenBatchContainsForeignAndMissingBookings_thenOnlyOwnBookingsApproved() {
+        final int ownBookingId = service.createBooking(bookerId, bookingDtoRequest).getId();
+
+        itemDtoResponse = itemService.createItem(bookerId, itemDtoRequest);
+        bookingDtoRequest.setItemId(itemDtoResponse.getId());
+        final int foreignBookingId = service.createBooking(ownerId, bookingDtoRequest).getId();
+        final int missingBookingId = 0;
+
+        List<BookingApprovalResultDto> results = service.approvedBookings(ownerId,
+                List.of(ownBookingId, foreignBookingId, missingBookingId), true);
+
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0), allOf(
+                hasProperty("bookingId", is(ownBookingId)),
+                hasProperty("status", is(BookingStatus.APPROVED)),
+                hasProperty("error", nullValue())));
+        assertThat(results.get(1), allOf(
+                hasProperty("bookingId", is(foreignBookingId)),
+                hasProperty("status", nullValue()),
+                hasProperty("error", notNullValue())));
+        assertEquals("Бронирование с id - " + missingBookingId + " не найдено", results.get(2).getError());
+
+        assertEquals(BookingStatus.APPROVED, em.find(Booking.class, ownBookingId).getStatus());
+        assertEquals(BookingStatus.WAITING, em.find(Booking.class, foreignBookingId).getStatus());
+    }
+
+    @Test
+    void approvedBookings_whenIdRepeated_thenRepeatReportedAndBookingChangedOnce() {
+        final int bookingId = service.createBooking(bookerId, bookingDtoRequest).getId();
+
+        List<BookingApprovalResultDto> results = service.approvedBookings(ownerId, List.of(bookingId, bookingId), true);
+
+        assertThat(results, contains(
+                allOf(hasProperty("bookingId", is(bookingId)),
+                        hasProperty("status", is(BookingStatus.APPROVED)),
+                        hasProperty("error", nullValue())),
+                allOf(hasProperty("bookingId", is(bookingId)),
+                        hasProperty("status", nullValue()),
+                        hasProperty("error", is("Бронирование с id - " + bookingId + " уже указано в пакете")))));
+        assertEquals(1L, em.createQuery("SELECT COUNT(e) FROM OutboxEvent AS e "
+                        + "WHERE e.aggregateType = ru.practicum.shareit.outbox.AggregateType.BOOKING "
+                        + "AND e.aggregateId = :bookingId "
+                        + "AND e.type = ru.practicum.shareit.outbox.ChangeType.UPDATED", Long.class)
+                .setParameter("bookingId", bookingId)
+                .getSingleResult());
+    }
+
+    @Test
+    void bookingView_whenBookingApprovedAndItemRenamed_thenViewUpdatedInSameTransaction() {
+        final int bookingId = service.createBooking(bookerId, bookingDtoRequest).getId();
+        service.approvedBookings(ownerId, List.of(bookingId), true);
+        itemService.updateItem(ownerId, itemId, ItemDtoRequest.builder().name("Renamed").build());
+
+        Object[] view = em.createQuery("SELECT v.ownerId, v.bookerId, v.itemName, v.status " +
+                        "FROM BookingView AS v WHERE v.bookingId = :bookingId", Object[].class)
+                .setParameter("bookingId", bookingId)
+                .getSingleResult();
+
+        assertThat(view, arrayContaining(ownerId, bookerId, "Renamed", BookingStatus.APPROVED));
+        assertThat(service.getBookings(BookingQuery.forOwner(ownerId).state(State.WAITING).build()), empty());
+        assertThat(service.getBookings(BookingQuery.forBooker(bookerId).state(State.ALL).build()),
+                contains(allOf(hasProperty("id", is(bookingId)),
+                        hasProperty("status", is(BookingStatus.APPROVED)),
+                        hasProperty("item", allOf(hasProperty("name", is("Renamed")),
+                                hasProperty("description", is("Description")))),
+                        hasProperty("booker", hasProperty("email", is("booker@email.com"))))));
+        assertThat(service.getCompactBookings(BookingQuery.forBooker(bookerId).state(State.ALL).build()),
+                contains(allOf(hasProperty("id", is(bookingId)),
+                        hasProperty("status", is(BookingStatus.APPROVED)),
+                        hasProperty("item", is(new BookingDtoForList.ItemShort(itemId, "Renamed"))),
+                        hasProperty("booker", is(new BookingDtoForList.BookerShort(bookerId))))));
+    }
+
     @Test
     void getBookingById_whenBookingDoesntExist_thenValidationExceptionThrown() {
         final int bookingId = 0;
@@ -321,7 +431,8 @@ class BookingServiceImplTest {
     void getBookingsByBooker_whenRequestAllBooking_thenResponseIsOkWithBookingsListInBody() {
         bookingDtoResponse = service.createBooking(bookerId, bookingDtoRequest);
         final int bookingId = bookingDtoResponse.getId();
-        List<BookingDtoResponse> responses = service.getBookingsByBooker(bookerId, State.ALL);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forBooker(bookerId)
+                .state(State.ALL).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.booker = :booker", Booking.class);
@@ -329,13 +440,14 @@ class BookingServiceImplTest {
 
         assertThat(bookings, hasSize(responses.size()));
         assertEquals(bookingId, bookings.getFirst().getId());
-        assertEquals(bookings.getFirst().getBooker(), responses.getFirst().getBooker());
+        assertThat(responses.getFirst().getBooker().getId(), is(bookings.getFirst().getBooker().getId()));
     }
 
     @Test
     void getBookingsByBooker_whenRequestCurrentBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByBooker(bookerId, State.CURRENT);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forBooker(bookerId)
+                .state(State.CURRENT).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.booker = :booker" +
@@ -343,13 +455,14 @@ class BookingServiceImplTest {
         List<Booking> bookings = query.setParameter("booker", booker).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getBooker(), responses.getFirst().getBooker());
+        assertThat(responses.getFirst().getBooker().getId(), is(bookings.getFirst().getBooker().getId()));
     }
 
     @Test
     void getBookingsByBooker_whenRequestPastBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByBooker(bookerId, State.PAST);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forBooker(bookerId)
+                .state(State.PAST).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.booker = :booker" +
@@ -357,13 +470,14 @@ class BookingServiceImplTest {
         List<Booking> bookings = query.setParameter("booker", booker).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getBooker(), responses.getFirst().getBooker());
+        assertThat(responses.getFirst().getBooker().getId(), is(bookings.getFirst().getBooker().getId()));
     }
 
     @Test
     void getBookingsByBooker_whenRequestFutureBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByBooker(bookerId, State.FUTURE);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forBooker(bookerId)
+                .state(State.FUTURE).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.booker = :booker" +
@@ -371,13 +485,14 @@ class BookingServiceImplTest {
         List<Booking> bookings = query.setParameter("booker", booker).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getBooker(), responses.getFirst().getBooker());
+        assertThat(responses.getFirst().getBooker().getId(), is(bookings.getFirst().getBooker().getId()));
     }
 
     @Test
     void getBookingsByBooker_whenRequestWaitingBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByBooker(bookerId, State.WAITING);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forBooker(bookerId)
+                .state(State.WAITING).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.booker = :booker" +
@@ -386,13 +501,14 @@ class BookingServiceImplTest {
                 .setParameter("status", BookingStatus.WAITING).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getBooker(), responses.getFirst().getBooker());
+        assertThat(responses.getFirst().getBooker().getId(), is(bookings.getFirst().getBooker().getId()));
     }
 
     @Test
     void getBookingsByBooker_whenRequestRejectedBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByBooker(bookerId, State.REJECTED);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forBooker(bookerId)
+                .state(State.REJECTED).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.booker = :booker" +
@@ -401,14 +517,15 @@ class BookingServiceImplTest {
                 .setParameter("status", BookingStatus.REJECTED).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getBooker(), responses.getFirst().getBooker());
+        assertThat(responses.getFirst().getBooker().getId(), is(bookings.getFirst().getBooker().getId()));
     }
 
     @Test
     void getBookingsByOwner_whenRequestAllBooking_thenResponseIsOkWithBookingsListInBody() {
         bookingDtoResponse = service.createBooking(bookerId, bookingDtoRequest);
         final int bookingId = bookingDtoResponse.getId();
-        List<BookingDtoResponse> responses = service.getBookingsByOwner(ownerId, State.ALL);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forOwner(ownerId)
+                .state(State.ALL).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.item.user = :owner", Booking.class);
@@ -416,13 +533,15 @@ class BookingServiceImplTest {
 
         assertThat(bookings, hasSize(responses.size()));
         assertEquals(bookingId, bookings.getFirst().getId());
-        assertEquals(bookings.getFirst().getItem().getUser(), responses.getFirst().getItem().getUser());
+        assertThat(responses.stream().map(BookingDtoResponse::getId).toList(),
+                containsInAnyOrder(bookings.stream().map(Booking::getId).toArray()));
     }
 
     @Test
     void getBookingsByOwner_whenRequestCurrentBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByOwner(ownerId, State.CURRENT);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forOwner(ownerId)
+                .state(State.CURRENT).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.item.user = :owner " +
@@ -430,13 +549,15 @@ class BookingServiceImplTest {
         List<Booking> bookings = query.setParameter("owner", owner).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getItem().getUser(), responses.getFirst().getItem().getUser());
+        assertThat(responses.stream().map(BookingDtoResponse::getId).toList(),
+                containsInAnyOrder(bookings.stream().map(Booking::getId).toArray()));
     }
 
     @Test
     void getBookingsByOwner_whenRequestPastBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByOwner(ownerId, State.PAST);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forOwner(ownerId)
+                .state(State.PAST).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.item.user = :owner " +
@@ -444,13 +565,15 @@ class BookingServiceImplTest {
         List<Booking> bookings = query.setParameter("owner", owner).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getItem().getUser(), responses.getFirst().getItem().getUser());
+        assertThat(responses.stream().map(BookingDtoResponse::getId).toList(),
+                containsInAnyOrder(bookings.stream().map(Booking::getId).toArray()));
     }
 
     @Test
     void getBookingsByOwner_whenRequestFutureBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByOwner(ownerId, State.FUTURE);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forOwner(ownerId)
+                .state(State.FUTURE).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.item.user = :owner " +
@@ -458,13 +581,15 @@ class BookingServiceImplTest {
         List<Booking> bookings = query.setParameter("owner", owner).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getItem().getUser(), responses.getFirst().getItem().getUser());
+        assertThat(responses.stream().map(BookingDtoResponse::getId).toList(),
+                containsInAnyOrder(bookings.stream().map(Booking::getId).toArray()));
     }
 
     @Test
     void getBookingsByOwner_whenRequestWaitingBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByOwner(ownerId, State.WAITING);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forOwner(ownerId)
+                .state(State.WAITING).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.item.user = :owner " +
@@ -473,13 +598,15 @@ class BookingServiceImplTest {
                 .setParameter("status", BookingStatus.WAITING).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getItem().getUser(), responses.getFirst().getItem().getUser());
+        assertThat(responses.stream().map(BookingDtoResponse::getId).toList(),
+                containsInAnyOrder(bookings.stream().map(Booking::getId).toArray()));
     }
 
     @Test
     void getBookingsByOwner_whenRequestRejectedBooking_thenResponseIsOkWithBookingsListInBody() {
         setBooking();
-        List<BookingDtoResponse> responses = service.getBookingsByOwner(ownerId, State.REJECTED);
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forOwner(ownerId)
+                .state(State.REJECTED).build());
 
         TypedQuery<Booking> query = em
                 .createQuery("SELECT b FROM Booking AS b WHERE b.item.user = :owner " +
@@ -488,7 +615,84 @@ class BookingServiceImplTest {
                 .setParameter("status", BookingStatus.REJECTED).getResultList();
 
         assertThat(bookings, hasSize(responses.size()));
-        assertEquals(bookings.getFirst().getItem().getUser(), responses.getFirst().getItem().getUser());
+        assertThat(responses.stream().map(BookingDtoResponse::getId).toList(),
+                containsInAnyOrder(bookings.stream().map(Booking::getId).toArray()));
+    }
+
+    @Test
+    void getBookings_whenPageRequested_thenReturnBookingsOfPageSortedByStartDesc() {
+        List<Integer> bookingIds = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            bookingDtoRequest.setStart(start.plusDays(i));
+            bookingDtoRequest.setEnd(start.plusDays(i).plusHours(1));
+            bookingIds.add(service.createBooking(bookerId, bookingDtoRequest).getId());
+        }
+
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forOwner(ownerId)
+                .state(State.FUTURE)
+                .from(1)
+                .size(1)
+                .build());
+
+        assertThat(responses, contains(hasProperty("id", is(bookingIds.get(1)))));
+    }
+
+    @Test
+    void getBookings_whenItemAndRangeGiven_thenReturnOnlyOverlappingBookingsOfItem() {
+        bookingDtoRequest.setStart(start.plusDays(1));
+        bookingDtoRequest.setEnd(start.plusDays(3));
+        final int matchingId = service.createBooking(bookerId, bookingDtoRequest).getId();
+
+        bookingDtoRequest.setStart(start.plusDays(5));
+        bookingDtoRequest.setEnd(start.plusDays(6));
+        service.createBooking(bookerId, bookingDtoRequest);
+
+        int otherItemId = itemService.createItem(ownerId, ItemDtoRequest.builder()
+                .name("Other")
+                .description("Other description")
+                .available(true)
+                .build()).getId();
+        bookingDtoRequest.setItemId(otherItemId);
+        bookingDtoRequest.setStart(start.plusDays(1));
+        bookingDtoRequest.setEnd(start.plusDays(3));
+        service.createBooking(bookerId, bookingDtoRequest);
+
+        List<BookingDtoResponse> responses = service.getBookings(BookingQuery.forBooker(bookerId)
+                .itemId(itemId)
+                .rangeStart(start.plusDays(2))
+                .rangeEnd(start.plusDays(4))
+                .build());
+
+        assertThat(responses, contains(hasProperty("id", is(matchingId))));
+    }
+
+    @Test
+    void getBookings_whenSizeIsZero_thenValidationExceptionThrown() {
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> service.getBookings(BookingQuery.forBooker(bookerId).size(0).build()));
+        assertEquals("Параметр from не может быть отрицательным, а size должен быть больше 0",
+                validationException.getMessage());
+    }
+
+    @Test
+    void getBookings_whenSizeAboveMax_thenValidationExceptionThrown() {
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> service.getBookings(BookingQuery.forBooker(bookerId).size(BookingQuery.MAX_SIZE + 1).build()));
+        assertEquals("Параметр size не может быть больше " + BookingQuery.MAX_SIZE, validationException.getMessage());
+    }
+
+    @Test
+    void getBookings_whenFromNotMultipleOfSize_thenPageStartsAtFrom() {
+        setBooking();
+        BookingQuery.BookingQueryBuilder query = BookingQuery.forBooker(bookerId)
+                .rangeStart(start.minusDays(1))
+                .rangeEnd(end.plusDays(1));
+        List<BookingDtoResponse> all = service.getBookings(query.build());
+
+        List<BookingDtoResponse> shifted = service.getBookings(query.from(1).size(2).build());
+
+        assertThat(all, hasSize(5));
+        assertEquals(all.subList(1, 3), shifted);
     }
 
     private void setBooking() {
@@ -512,7 +716,7 @@ class BookingServiceImplTest {
                 bookingDtoRequest.setEnd(end.plusMinutes(i));
             }
 
-            if (i == 5) {
+            if (i == 1 || i == 5) {
                 bookingDtoRequest.setStart(start.plusMinutes(1));
                 bookingDtoRequest.setEnd(end.plusMinutes(i));
             }
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.config.PrimaryDatabaseReader;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingStateCacheTest {
+
+    @Mock
+    private BookingViewRepository repository;
+
+    @Mock
+    private PrimaryDatabaseReader primaryDatabaseReader;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private BookingStateCache cache;
+
+    private final int ownerId = 1;
+    private final LocalDateTime now = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(primaryDatabaseReader.read(any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(0).get());
+        cache = new BookingStateCache(repository, primaryDatabaseReader, meterRegistry, 100, Duration.ofMinutes(10), 10);
+    }
+
+    @Test
+    void findBookings_whenTimeCrossesStartAndEnd_thenBookingPromotedWithoutReload() {
+        BookingSlot later = new BookingSlot(2, ownerId, 2, 3, "Дрель",
+                now.plusHours(3), now.plusHours(4), BookingStatus.WAITING);
+        BookingSlot sooner = new BookingSlot(1, ownerId, 2, 3, "Дрель",
+                now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED);
+        returnSlots(later, sooner);
+
+        assertThat(ids(State.FUTURE, now), contains(2, 1));
+        assertThat(ids(State.CURRENT, now.plusMinutes(90)), contains(1));
+        assertThat(ids(State.FUTURE, now.plusMinutes(90)), contains(2));
+        assertThat(ids(State.PAST, now.plusHours(5)), contains(2, 1));
+        assertThat(ids(State.WAITING, now.plusHours(5)), contains(2));
+
+        verify(repository, times(1)).findSlotsByOwnerId(eq(ownerId), any(Pageable.class));
+    }
+
+    @Test
+    void findBookings_whenInvalidated_thenReloaded() {
+        returnSlots(new BookingSlot(1, ownerId, 2, 3, "Дрель", now.plusHours(1), now.plusHours(2), BookingStatus.WAITING));
+
+        ids(State.ALL, now);
+        cache.invalidate(List.of(2), ownerId);
+        ids(State.ALL, now);
+
+        verify(repository, times(2)).findSlotsByOwnerId(eq(ownerId), any(Pageable.class));
+    }
+
+    @Test
+    void findBookings_whenPageRequested_thenReturnSliceOfBucket() {
+        returnSlots(new BookingSlot(3, ownerId, 2, 3, "Дрель", now.plusHours(3), now.plusHours(4), BookingStatus.WAITING),
+                new BookingSlot(2, ownerId, 2, 3, "Дрель", now.plusHours(2), now.plusHours(3), BookingStatus.WAITING),
+                new BookingSlot(1, ownerId, 2, 3, "Дрель", now.plusHours(1), now.plusHours(2), BookingStatus.WAITING));
+
+        List<BookingView> page = cache.findBookings(BookingQuery.forOwner(ownerId).from(1).size(2).build(), now);
+
+        assertThat(page, contains(hasProperty("bookingId", is(2)), hasProperty("bookingId", is(1))));
+    }
+
+    @Test
+    void findBookings_whenLoaded_thenReadFromPrimary() {
+        returnSlots(new BookingSlot(1, ownerId, 2, 3, "Дрель", now.plusHours(1), now.plusHours(2), BookingStatus.WAITING));
+
+        ids(State.ALL, now);
+
+        verify(primaryDatabaseReader).read(any());
+    }
+
+    @Test
+    void findBookings_whenFilteredByItem_thenNotServedFromCache() {
+        assertThat(cache.findBookings(BookingQuery.forOwner(ownerId).itemId(1).build(), now), nullValue());
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void findBookings_whenUserHasTooManyBookings_thenNotServedFromCache() {
+        BookingSlot[] slots = new BookingSlot[11];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new BookingSlot(i, ownerId, 2, 3, "Дрель", now.plusHours(i), now.plusHours(i + 1), BookingStatus.WAITING);
+        }
+        returnSlots(slots);
+
+        assertThat(cache.findBookings(BookingQuery.forOwner(ownerId).build(), now), nullValue());
+    }
+
+    private List<Integer> ids(State state, LocalDateTime time) {
+        return cache.findBookings(BookingQuery.forOwner(ownerId).state(state).build(), time).stream()
+                .map(BookingView::getBookingId)
+                .toList();
+    }
+
+    private void returnSlots(BookingSlot... slots) {
+        when(repository.findSlotsByOwnerId(eq(ownerId), any(Pageable.class))).thenReturn(List.of(slots));
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeEvent;
+import ru.practicum.shareit.outbox.ChangeType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class OwnerBookingStreamTest {
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private OwnerBookingStream stream;
+
+    private final int ownerId = 1;
+
+    @BeforeEach
+    void setUp() {
+        stream = new OwnerBookingStream(new ObjectMapper(), meterRegistry, Duration.ofMinutes(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    void accept_whenBookingOfOwnersItem_thenSentOnlyToOwner() throws Exception {
+        RecordingEmitter owner = new RecordingEmitter(2);
+        RecordingEmitter stranger = new RecordingEmitter(2);
+        stream.register(ownerId, owner);
+        stream.register(2, stranger);
+
+        stream.accept(List.of(
+                event(1, AggregateType.ITEM, ownerId),
+                event(2, AggregateType.BOOKING, 2),
+                event(3, AggregateType.BOOKING, ownerId)));
+
+        owner.await();
+        stranger.await();
+        assertThat(owner.events(), contains(containsString(":subscribed"), allOf(containsString("id:3"),
+                containsString("event:booking"), containsString("\"id\":" + ownerId))));
+        assertThat(stranger.events(), contains(containsString(":subscribed"), containsString("id:2")));
+        assertThat(stream.getSubscriberCount(), is(2));
+    }
+
+    @Test
+    void accept_whenSubscriberFallsBehind_thenBufferReplacedWithResync() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        RecordingEmitter owner = new RecordingEmitter(2) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                entered.countDown();
+                try {
+                    blocked.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        stream.register(ownerId, owner);
+        assertThat(entered.await(5, TimeUnit.SECONDS), is(true));
+
+        stream.accept(List.of(
+                event(1, AggregateType.BOOKING, ownerId),
+                event(2, AggregateType.BOOKING, ownerId),
+                event(3, AggregateType.BOOKING, ownerId)));
+        blocked.countDown();
+
+        owner.await();
+        assertThat(owner.events(), contains(containsString(":subscribed"), containsString("event:resync")));
+    }
+
+    @Test
+    void register_whenEmitterCompleted_thenSubscriberRemoved() {
+        RecordingEmitter owner = new RecordingEmitter(1);
+        stream.register(ownerId, owner);
+        assertThat(stream.getSubscriberCount(), is(1));
+
+        owner.completionCallback.run();
+
+        assertThat(stream.getSubscriberCount(), is(0));
+    }
+
+    private ChangeEvent event(long id, AggregateType type, int ownerId) {
+        String payload = "{\"id\":" + id + ",\"item\":{\"user\":{\"id\":" + ownerId + "}}}";
+        return new ChangeEvent(id, type, (int) id, ChangeType.CREATED, payload, LocalDateTime.now());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private final CountDownLatch sent;
+        private Runnable completionCallback;
+
+        RecordingEmitter(int expected) {
+            this.sent = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            synchronized (events) {
+                events.add(event.toString());
+            }
+            sent.countDown();
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            this.completionCallback = callback;
+        }
+
+        void await() throws InterruptedException {
+            assertThat(sent.await(5, TimeUnit.SECONDS), is(true));
+        }
+
+        List<String> events() {
+            synchronized (events) {
+                return List.copyOf(events);
+            }
+        }
+    }
+}
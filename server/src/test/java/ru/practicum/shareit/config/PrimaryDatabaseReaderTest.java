@@ -0,0 +1,56 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PrimaryDatabaseReaderTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PrimaryDatabaseReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new PrimaryDatabaseReader(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void read_whenCallerReadOnly_thenReadInSeparateWritableTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("row", reader.read(() -> "row"));
+
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()
+                && definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    void read_whenCallerWritable_thenCallerTransactionUsed() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertEquals("row", reader.read(() -> "row"));
+
+        verifyNoInteractions(transactionManager);
+    }
+}
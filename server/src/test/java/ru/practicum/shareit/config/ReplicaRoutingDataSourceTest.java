@@ -0,0 +1,116 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource firstReplica;
+
+    @Mock
+    private DataSource secondReplica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection firstReplicaConnection;
+
+    @Mock
+    private Connection secondReplicaConnection;
+
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica),
+                tracker, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.clearCurrentUser();
+        dataSource.destroy();
+    }
+
+    @Test
+    void getConnection_whenReplicasHealthy_thenReplicasUsedInTurn() throws SQLException {
+        when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+        when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+
+        assertSame(firstReplicaConnection, dataSource.getConnection());
+        assertSame(secondReplicaConnection, dataSource.getConnection());
+        assertSame(firstReplicaConnection, dataSource.getConnection());
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_whenReplicaFails_thenNextReplicaUsedUntilHealthCheckPasses() throws SQLException {
+        when(firstReplica.getConnection()).thenThrow(new SQLException("down"));
+        when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+
+        assertSame(secondReplicaConnection, dataSource.getConnection());
+        assertSame(secondReplicaConnection, dataSource.getConnection());
+        verify(firstReplica, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_whenAllReplicasFail_thenPrimaryUsed() throws SQLException {
+        when(firstReplica.getConnection()).thenThrow(new SQLException("down"));
+        when(secondReplica.getConnection()).thenThrow(new SQLException("down"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        reset(firstReplica);
+        when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+        when(firstReplicaConnection.isValid(anyInt())).thenReturn(true);
+        dataSource.checkHealth();
+
+        assertSame(firstReplicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenCredentialsGiven_thenRoutedLikeDefaultConnection() throws SQLException {
+        when(firstReplica.getConnection("reader", "secret")).thenThrow(new SQLException("down"));
+        when(secondReplica.getConnection("reader", "secret")).thenReturn(secondReplicaConnection);
+        when(primary.getConnection("writer", "secret")).thenReturn(primaryConnection);
+
+        assertSame(secondReplicaConnection, dataSource.getConnection("reader", "secret"));
+
+        tracker.recordWrite(1);
+        tracker.setCurrentUser(1);
+        assertSame(primaryConnection, dataSource.getConnection("writer", "secret"));
+        verify(firstReplica, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_whenUserWroteRecently_thenPrimaryUsed() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        tracker.recordWrite(1);
+        tracker.setCurrentUser(1);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(firstReplica, secondReplica);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SqlMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlMetricsFilter filter = new SqlMetricsFilter(registry, Duration.ofMinutes(1));
+    private final SqlStatisticsInspector inspector = new SqlStatisticsInspector();
+
+    @Test
+    void doFilter_thenStatementsCountedPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+            inspector.inspect("select i.id from items i where i.id=?");
+            inspector.inspect("select c.id from comments c where c.item_id=?");
+            inspector.inspect("select c.id from comments c where c.item_id=?");
+        });
+
+        DistributionSummary statements = registry.get("shareit.sql.statements")
+                .tag("uri", "/items/{itemId}")
+                .tag("method", "GET")
+                .summary();
+        assertThat(statements.count(), equalTo(1L));
+        assertThat(statements.totalAmount(), equalTo(3.0));
+        assertThat(SqlStatistics.current(), nullValue());
+    }
+
+    @Test
+    void inspect_whenOutsideRequest_thenIgnored() {
+        String sql = "select 1";
+
+        assertThat(inspector.inspect(sql), sameInstance(sql));
+        assertThat(registry.find("shareit.sql.statements").meters(), empty());
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.config;
+
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@AutoConfigureObservability(metrics = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TracingConfigTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String GATEWAY_SPAN_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private RecordingSpanExporter exporter;
+
+    @Test
+    void request_whenTraceparentSent_thenServerAndRepositorySpansJoinGatewayTrace() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("traceparent", "00-" + TRACE_ID + "-" + GATEWAY_SPAN_ID + "-01");
+
+        restTemplate.exchange("/users/999", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        List<SpanData> spans = exporter.spans.stream()
+                .filter(span -> span.getTraceId().equals(TRACE_ID))
+                .toList();
+        SpanData serverSpan = spans.stream()
+                .filter(span -> span.getKind() == SpanKind.SERVER)
+                .findFirst()
+                .orElseThrow();
+        assertThat(serverSpan.getParentSpanId(), equalTo(GATEWAY_SPAN_ID));
+        assertThat(spans, hasItem(hasProperty("name", equalTo("UserRepository.findByIdAndDeletedFalse"))));
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingSpanExporter recordingSpanExporter() {
+            return new RecordingSpanExporter();
+        }
+    }
+
+    static class RecordingSpanExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
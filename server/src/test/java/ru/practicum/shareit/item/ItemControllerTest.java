@@ -13,14 +13,17 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.Constants;
 import ru.practicum.shareit.comment.CommentDtoRequest;
 import ru.practicum.shareit.comment.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.user.User;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -162,7 +165,7 @@ class ItemControllerTest {
         final String text = "Test";
         List<ItemDtoResponse> items = List.of(itemDtoResponse);
 
-        when(service.searchItems(itemId, text)).thenReturn(items);
+        when(service.searchItems(itemId, text, null, null)).thenReturn(items);
 
         mvc.perform(get(url + "/search?text=" + text)
                         .header(X_SHARER_USER_ID, userId)
@@ -173,7 +176,7 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(mapper.writeValueAsString(items)));
 
-        verify(service, times(1)).searchItems(itemId, text);
+        verify(service, times(1)).searchItems(itemId, text, null, null);
     }
 
     @Test
@@ -201,4 +204,52 @@ class ItemControllerTest {
 
         verify(service, times(1)).addComment(userId, itemId, commentDtoRequest);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getComments_whenInvoked_thenCommentsPageReturned() throws Exception {
+        CommentDtoResponse commentDtoResponse = new CommentDtoResponse();
+        commentDtoResponse.setId(1);
+        commentDtoResponse.setText("Comment");
+        commentDtoResponse.setAuthorName(user.getName());
+
+        when(service.getComments(userId, itemId, 10, 5)).thenReturn(List.of(commentDtoResponse));
+
+        mvc.perform(get(url + "/{itemId}/comments", itemId)
+                        .header(X_SHARER_USER_ID, userId)
+                        .param("from", "10")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(commentDtoResponse.getId()), Integer.class))
+                .andExpect(jsonPath("$[0].text", is(commentDtoResponse.getText())));
+
+        verify(service, times(1)).getComments(userId, itemId, 10, 5);
+    }
+
+    @Test
+    void getAvailability_whenSeveralItems_thenAvailabilityListReturned() throws Exception {
+        final LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        final LocalDateTime to = from.plusDays(1);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .available(true)
+                .booked(List.of())
+                .build();
+
+        when(service.getAvailability(userId, List.of(itemId, 2), from, to)).thenReturn(List.of(availability));
+
+        mvc.perform(get(url + "/availability")
+                        .header(X_SHARER_USER_ID, userId)
+                        .param("itemIds", itemId + ",2")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].itemId", is(itemId)))
+                .andExpect(jsonPath("$[0].available", is(true)));
+
+        verify(service, times(1)).getAvailability(userId, List.of(itemId, 2), from, to);
+    }
+}
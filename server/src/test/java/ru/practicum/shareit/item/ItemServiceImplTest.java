@@ -16,6 +16,9 @@ import ru.practicum.shareit.comment.CommentDtoRequest;
 import ru.practicum.shareit.comment.CommentDtoResponse;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.BookedIntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
@@ -27,6 +30,7 @@ import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -125,6 +129,34 @@ class ItemServiceImplTest {
                 notFoundException.getMessage());
     }
 
+    @Test
+    void createItems_whenBatchContainsInvalidRows_thenValidRowsSavedAndErrorsReported() {
+        ItemDtoRequest withoutName = ItemDtoRequest.builder()
+                .description("Description")
+                .available(true)
+                .build();
+        ItemDtoRequest withUnknownRequest = ItemDtoRequest.builder()
+                .name("Name")
+                .description("Description")
+                .available(true)
+                .requestId(-1)
+                .build();
+
+        List<ItemBatchResultDto> results = service.createItems(userDto.getId(),
+                List.of(itemDtoRequest, withoutName, withUnknownRequest, itemDtoRequest));
+
+        assertEquals(4, results.size());
+        assertThat(results.get(0), allOf(hasProperty("row", is(0)), hasProperty("id", notNullValue())));
+        assertThat(results.get(1), allOf(hasProperty("row", is(1)), hasProperty("error", notNullValue())));
+        assertEquals("Запрос с id - -1 не найден!", results.get(2).getError());
+        assertThat(results.get(3), allOf(hasProperty("row", is(3)), hasProperty("id", notNullValue())));
+
+        TypedQuery<Item> query = em
+                .createQuery("SELECT i FROM Item AS i WHERE i.user.id = :userId", Item.class);
+        List<Item> items = query.setParameter("userId", userDto.getId()).getResultList();
+        assertThat(items, hasSize(2));
+    }
+
     @Test
     void updateItem_whenUpdateItemDescription_thenUpdateItem() {
         ItemDtoRequest updateItemDtoRequest = new ItemDtoRequest();
@@ -246,15 +278,9 @@ class ItemServiceImplTest {
         itemDtoResponse = service.createItem(userId, itemDtoRequest);
         final int itemId = itemDtoResponse.getId();
 
+        BookingDtoResponse last = createPastApprovedBooking(bookerId, itemId);
         BookingDtoRequest booking = new BookingDtoRequest();
 
-        booking.setItemId(itemId);
-        booking.setStart(LocalDateTime.now());
-        booking.setEnd(LocalDateTime.now().plusNanos(1));
-        BookingDtoResponse last = bookingService.createBooking(bookerId, booking);
-
-        Thread.sleep(10);
-
         commentDtoRequest = new CommentDtoRequest();
         commentDtoRequest.setText("Comment");
         commentDtoResponse = service.addComment(bookerId, itemId, commentDtoRequest);
@@ -298,7 +324,7 @@ class ItemServiceImplTest {
     void searchItems_whenInvoked_thenResponseIsOkWithUsersListInBody() {
         final String text = "Name";
         itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
-        List<ItemDtoResponse> items = service.searchItems(userDto.getId(), text);
+        List<ItemDtoResponse> items = service.searchItems(userDto.getId(), text, null, null);
 
         items.forEach(itemDtoResponse -> assertEquals(text, itemDtoResponse.getName()));
     }
@@ -307,31 +333,131 @@ class ItemServiceImplTest {
     void searchItems_whenTextIsEmpty_thenResponseIsOkWithEmptyListInBody() {
         final String text = "";
         itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
-        List<ItemDtoResponse> items = service.searchItems(userDto.getId(), text);
+        List<ItemDtoResponse> items = service.searchItems(userDto.getId(), text, null, null);
 
         items.forEach(itemDtoResponse -> assertEquals(text, itemDtoResponse.getName()));
         assertEquals(0, items.size());
     }
 
     @Test
-    void addComment_whenCommentValid_thenReturnComment() throws InterruptedException {
+    void getAvailability_whenBookingApproved_thenItemBusyOnlyDuringBooking() {
         UserDto bookerDto = new UserDto();
         bookerDto.setName("Booker");
         bookerDto.setEmail("booker@booker.com");
+        UserDto booker = userService.createUser(bookerDto);
+        itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
+        final int itemId = itemDtoResponse.getId();
+        final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        BookingDtoRequest booking = new BookingDtoRequest();
+        booking.setItemId(itemId);
+        booking.setStart(start);
+        booking.setEnd(start.plusDays(2));
+        BookingDtoResponse bookingDtoResponse = bookingService.createBooking(booker.getId(), booking);
+
+        ItemAvailabilityDto waiting = service.getAvailability(booker.getId(), itemId, start, start.plusDays(1));
+        bookingService.approvedBooking(userDto.getId(), bookingDtoResponse.getId(), true);
+        ItemAvailabilityDto approved = service.getAvailability(booker.getId(), itemId,
+                start.minusDays(1), start.plusDays(1));
+        ItemAvailabilityDto before = service.getAvailability(booker.getId(), itemId, start.minusDays(1), start);
+        ItemAvailabilityDto after = service.getAvailability(booker.getId(), itemId,
+                start.plusDays(2), start.plusDays(3));
+
+        assertEquals(true, waiting.getAvailable());
+        assertThat(waiting.getBooked(), empty());
+        assertEquals(false, approved.getAvailable());
+        assertThat(approved.getBooked(), contains(new BookedIntervalDto(start, start.plusDays(1))));
+        assertEquals(true, before.getAvailable());
+        assertEquals(true, after.getAvailable());
+    }
 
+    @Test
+    void getAvailability_whenSeveralItems_thenAnsweredForEachExistingItem() {
+        UserDto bookerDto = new UserDto();
+        bookerDto.setName("Booker");
+        bookerDto.setEmail("booker@booker.com");
         UserDto booker = userService.createUser(bookerDto);
+        final int bookedId = service.createItem(userDto.getId(), itemDtoRequest).getId();
+        final int freeId = service.createItem(userDto.getId(), itemDtoRequest).getId();
+        itemDtoRequest.setAvailable(false);
+        final int unavailableId = service.createItem(userDto.getId(), itemDtoRequest).getId();
+        final LocalDateTime start = LocalDateTime.now().plusDays(1);
 
-        commentDtoRequest = new CommentDtoRequest();
-        commentDtoRequest.setText("Comment");
+        BookingDtoRequest booking = new BookingDtoRequest();
+        booking.setItemId(bookedId);
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(1));
+        bookingService.approvedBooking(userDto.getId(),
+                bookingService.createBooking(booker.getId(), booking).getId(), true);
+
+        List<ItemAvailabilityDto> availability = service.getAvailability(booker.getId(),
+                List.of(freeId, bookedId, unavailableId, 0), start.minusHours(1), start.plusHours(2));
+
+        assertThat(availability.stream()
+                        .map(item -> item.getItemId() + " " + item.getAvailable())
+                        .toList(),
+                contains(freeId + " true", bookedId + " false", unavailableId + " false"));
+    }
+
+    @Test
+    void getAvailability_whenIntervalEmpty_thenValidationExceptionThrown() {
         itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
+        final LocalDateTime time = LocalDateTime.now();
+
+        assertThrows(ValidationException.class,
+                () -> service.getAvailability(userDto.getId(), itemDtoResponse.getId(), time, time));
+    }
+
+    @Test
+    void searchItems_whenIntervalGiven_thenItemsWithApprovedOverlappingBookingsExcluded() {
+        UserDto bookerDto = new UserDto();
+        bookerDto.setName("Booker");
+        bookerDto.setEmail("booker@booker.com");
+        UserDto booker = userService.createUser(bookerDto);
+        final int bookedId = service.createItem(userDto.getId(), itemDtoRequest).getId();
+        final int waitingId = service.createItem(userDto.getId(), itemDtoRequest).getId();
+        final int freeId = service.createItem(userDto.getId(), itemDtoRequest).getId();
+        final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
 
         BookingDtoRequest booking = new BookingDtoRequest();
-        booking.setItemId(itemDtoResponse.getId());
-        booking.setStart(LocalDateTime.now());
-        booking.setEnd(LocalDateTime.now().plusNanos(1));
+        booking.setItemId(bookedId);
+        booking.setStart(start);
+        booking.setEnd(start.plusDays(2));
+        bookingService.approvedBooking(userDto.getId(),
+                bookingService.createBooking(booker.getId(), booking).getId(), true);
+        booking.setItemId(waitingId);
         bookingService.createBooking(booker.getId(), booking);
 
-        Thread.sleep(1);
+        List<ItemDtoResponse> overlapping = service.searchItems(booker.getId(), "name",
+                start.plusDays(1), start.plusDays(3));
+        List<ItemDtoResponse> afterBooking = service.searchItems(booker.getId(), "name",
+                start.plusDays(2), start.plusDays(3));
+
+        assertThat(overlapping.stream().map(ItemDtoResponse::getId).toList(),
+                containsInAnyOrder(waitingId, freeId));
+        assertThat(afterBooking.stream().map(ItemDtoResponse::getId).toList(),
+                containsInAnyOrder(bookedId, waitingId, freeId));
+    }
+
+    @Test
+    void searchItems_whenOnlyStartGiven_thenValidationExceptionThrown() {
+        assertThrows(ValidationException.class,
+                () -> service.searchItems(userDto.getId(), "name", LocalDateTime.now(), null));
+    }
+
+    @Test
+    void addComment_whenCommentValid_thenReturnComment() throws InterruptedException {
+        UserDto bookerDto = new UserDto();
+        bookerDto.setName("Booker");
+        bookerDto.setEmail("booker@booker.com");
+
+        UserDto booker = userService.createUser(bookerDto);
+
+        commentDtoRequest = new CommentDtoRequest();
+        commentDtoRequest.setText("Comment");
+        itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
+
+        createPastApprovedBooking(booker.getId(), itemDtoResponse.getId());
 
         commentDtoResponse = service.addComment(booker.getId(), itemDtoResponse.getId(), commentDtoRequest);
 
@@ -366,7 +492,8 @@ class ItemServiceImplTest {
 
         ValidationException validationException = assertThrows(ValidationException.class,
                 () -> service.addComment(userDto.getId(), itemDtoResponse.getId(), commentDtoRequest));
-        assertEquals("Для вещи с id: " + itemDtoResponse.getId() + " бронирования не было",
+        assertEquals("Пользователь с id: " + userDto.getId() + " не бронировал вещь с id: " +
+                        itemDtoResponse.getId() + " или срок бронирования не истек",
                 validationException.getMessage());
     }
 
@@ -397,4 +524,113 @@ class ItemServiceImplTest {
                 validationException.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void addComment_whenBookingNotApproved_thenValidationExceptionThrown() throws InterruptedException {
+        UserDto bookerDto = new UserDto();
+        bookerDto.setName("Booker");
+        bookerDto.setEmail("booker@booker.com");
+        UserDto booker = userService.createUser(bookerDto);
+
+        commentDtoRequest = new CommentDtoRequest();
+        commentDtoRequest.setText("Comment");
+        itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
+
+        BookingDtoRequest booking = new BookingDtoRequest();
+        booking.setItemId(itemDtoResponse.getId());
+        booking.setStart(LocalDateTime.now());
+        booking.setEnd(LocalDateTime.now().plusNanos(1));
+        bookingService.createBooking(booker.getId(), booking);
+
+        Thread.sleep(1);
+
+        assertThrows(ValidationException.class,
+                () -> service.addComment(booker.getId(), itemDtoResponse.getId(), commentDtoRequest));
+    }
+
+    @Test
+    void addComment_whenItemBookedLaterByAnotherUser_thenPastBookerCanComment() throws InterruptedException {
+        UserDto bookerDto = new UserDto();
+        bookerDto.setName("Booker");
+        bookerDto.setEmail("booker@booker.com");
+        UserDto booker = userService.createUser(bookerDto);
+
+        UserDto nextBookerDto = new UserDto();
+        nextBookerDto.setName("Next booker");
+        nextBookerDto.setEmail("next@booker.com");
+        UserDto nextBooker = userService.createUser(nextBookerDto);
+
+        itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
+
+        createPastApprovedBooking(booker.getId(), itemDtoResponse.getId());
+
+        BookingDtoRequest booking = new BookingDtoRequest();
+        booking.setItemId(itemDtoResponse.getId());
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        bookingService.createBooking(nextBooker.getId(), booking);
+
+        Thread.sleep(1);
+
+        commentDtoRequest = new CommentDtoRequest();
+        commentDtoRequest.setText("Comment");
+        commentDtoResponse = service.addComment(booker.getId(), itemDtoResponse.getId(), commentDtoRequest);
+
+        assertThat(commentDtoResponse, allOf(
+                hasProperty("id", notNullValue()),
+                hasProperty("authorName", is(booker.getName()))
+        ));
+    }
+
+    @Test
+    void getComments_whenSeveralComments_thenCountedAndPagedNewestFirst() throws InterruptedException {
+        UserDto bookerDto = new UserDto();
+        bookerDto.setName("Booker");
+        bookerDto.setEmail("booker@booker.com");
+        UserDto booker = userService.createUser(bookerDto);
+        itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
+
+        createPastApprovedBooking(booker.getId(), itemDtoResponse.getId());
+
+        for (int i = 0; i < 3; i++) {
+            commentDtoRequest = new CommentDtoRequest();
+            commentDtoRequest.setText("Comment " + i);
+            service.addComment(booker.getId(), itemDtoResponse.getId(), commentDtoRequest);
+        }
+
+        ItemDto itemDto = service.getItemById(userDto.getId(), itemDtoResponse.getId());
+        List<ItemDto> items = service.getItems(userDto.getId());
+        List<CommentDtoResponse> firstPage = service.getComments(booker.getId(), itemDtoResponse.getId(), 0, 2);
+        List<CommentDtoResponse> secondPage = service.getComments(booker.getId(), itemDtoResponse.getId(), 2, 2);
+        List<CommentDtoResponse> shiftedPage = service.getComments(booker.getId(), itemDtoResponse.getId(), 1, 2);
+
+        assertEquals(3L, itemDto.getCommentCount());
+        assertEquals(3, itemDto.getComments().size());
+        assertEquals(3L, items.getFirst().getCommentCount());
+        assertEquals(3, items.getFirst().getComments().size());
+        assertThat(firstPage, contains(hasProperty("text", is("Comment 2")), hasProperty("text", is("Comment 1"))));
+        assertThat(secondPage, contains(hasProperty("text", is("Comment 0"))));
+        assertThat(shiftedPage, contains(hasProperty("text", is("Comment 1")), hasProperty("text", is("Comment 0"))));
+    }
+
+    @Test
+    void getComments_whenSizeNotPositive_thenValidationExceptionThrown() {
+        itemDtoResponse = service.createItem(userDto.getId(), itemDtoRequest);
+
+        assertThrows(ValidationException.class,
+                () -> service.getComments(userDto.getId(), itemDtoResponse.getId(), 0, 0));
+    }
+
+    // Решение принимается до начала бронирования, поэтому прошедшее подтвержденное бронирование
+    // создается с началом в ближайшем будущем, подтверждается, и тест дожидается его окончания.
+    private BookingDtoResponse createPastApprovedBooking(int bookerId, int itemId) throws InterruptedException {
+        BookingDtoRequest booking = new BookingDtoRequest();
+        booking.setItemId(itemId);
+        booking.setStart(LocalDateTime.now().plus(300, ChronoUnit.MILLIS));
+        booking.setEnd(booking.getStart().plusNanos(1));
+        BookingDtoResponse bookingDtoResponse = bookingService.approvedBooking(userDto.getId(),
+                bookingService.createBooking(bookerId, booking).getId(), true);
+
+        Thread.sleep(Math.max(0, ChronoUnit.MILLIS.between(LocalDateTime.now(), booking.getEnd())) + 1);
+        return bookingDtoResponse;
+    }
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Снимки транзакций есть только в PostgreSQL, поэтому тест работает со встроенным PostgreSQL, а не с H2.
+ * gapTimeout равен нулю: в режиме SNAPSHOT время не решает, пропускать ли пропуск.
+ */
+@SpringBootTest
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class OutboxRelaySnapshotTest {
+
+    private static final EmbeddedPostgres postgres = startPostgres();
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final List<ChangeEvent> received = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboxRelay relay;
+
+    @DynamicPropertySource
+    static void postgresDataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.sql.init.schema-locations", () -> "classpath:schema.sql,"
+                + "classpath:schema-postgresql.sql,classpath:schema-bookings-postgresql.sql");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory consumers = new StaticListableBeanFactory();
+        consumers.addBean("recordingConsumer", (ChangeEventConsumer) received::addAll);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        relay = new OutboxRelay(outboxEventRepository, outboxCursorRepository,
+                consumers.getBeanProvider(ChangeEventConsumer.class), transactionTemplate,
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class),
+                10, OutboxGapDetection.SNAPSHOT, Duration.ZERO, Duration.ofHours(1));
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE outbox_cursors SET last_event_id = (SELECT COALESCE(MAX(id), 0) FROM outbox_events)"));
+    }
+
+    @Test
+    void relay_whenEarlierTransactionStillOpen_thenLaterEventsWaitForItsCommit() throws SQLException {
+        long slowId;
+        long fastId;
+        try (Connection slow = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            slowId = insertEvent(slow);
+            fastId = insertCommittedEvent();
+
+            assertEquals(0, relay.relaySharedBatch());
+            assertEquals(0, relay.relaySharedBatch());
+
+            slow.commit();
+        }
+
+        assertEquals(2, relay.relaySharedBatch());
+        assertThat(received.stream().map(ChangeEvent::id).toList(), contains(slowId, fastId));
+        assertEquals(0, meterRegistry.counter("shareit.outbox.gaps.skipped", "delivery", "shared").count());
+    }
+
+    @Test
+    void relay_whenEarlierTransactionRolledBack_thenGapSkippedAndCounted() throws SQLException {
+        long laterId;
+        try (Connection rolledBack = dataSource.getConnection()) {
+            rolledBack.setAutoCommit(false);
+            insertEvent(rolledBack);
+            laterId = insertCommittedEvent();
+
+            assertEquals(0, relay.relaySharedBatch());
+
+            rolledBack.rollback();
+        }
+
+        assertEquals(1, relay.relaySharedBatch());
+        assertThat(received.stream().map(ChangeEvent::id).toList(), contains(laterId));
+        assertEquals(1, meterRegistry.counter("shareit.outbox.gaps.skipped", "delivery", "shared").count());
+    }
+
+    private long insertCommittedEvent() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            long id = insertEvent(connection);
+            connection.commit();
+            return id;
+        }
+    }
+
+    private static long insertEvent(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO outbox_events "
+                + "(aggregate_type, aggregate_id, event_type, payload, created) "
+                + "VALUES ('ITEM', 1, 'CREATED', '{}', LOCALTIMESTAMP) RETURNING id");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.request.ItemRequestDtoRequest;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class OutboxRelayTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final List<ChangeEvent> received = new ArrayList<>();
+    private final StaticListableBeanFactory consumers = new StaticListableBeanFactory();
+
+    private int ownerId;
+    private int bookerId;
+
+    @BeforeEach
+    void setUp() {
+        consumers.addBean("recordingConsumer", (ChangeEventConsumer) received::addAll);
+
+        ownerId = userService.createUser(new UserDto(null, "Owner Name", "owner@email.com")).getId();
+        bookerId = userService.createUser(new UserDto(null, "Booker Name", "booker@email.com")).getId();
+    }
+
+    @Test
+    void relay_whenItemsBookingsAndRequestsChanged_thenEventsDeliveredInOrderAndCursorMoved() {
+        final int requestId = itemRequestService.createRequest(bookerId,
+                ItemRequestDtoRequest.builder().description("Description").build()).getId();
+        final int itemId = itemService.createItem(ownerId, ItemDtoRequest.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .requestId(requestId)
+                .build()).getId();
+        final int bookingId = bookingService.createBooking(bookerId, BookingDtoRequest.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+        bookingService.approvedBooking(ownerId, bookingId, true);
+
+        int published = relay(2).relaySharedBatch() + relay(2).relaySharedBatch();
+
+        assertEquals(4, published);
+        assertThat(received.stream()
+                        .map(event -> event.aggregateType() + " " + event.aggregateId() + " " + event.type())
+                        .toList(),
+                contains("REQUEST " + requestId + " CREATED",
+                        "ITEM " + itemId + " CREATED",
+                        "BOOKING " + bookingId + " CREATED",
+                        "BOOKING " + bookingId + " UPDATED"));
+        assertThat(received.getLast().payload(), containsString("\"status\":\"APPROVED\""));
+        assertEquals(received.getLast().id(), getCursor());
+    }
+
+    @Test
+    void relay_whenConsumerFails_thenEventsKeptForNextAttempt() {
+        itemService.createItem(ownerId, ItemDtoRequest.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .build());
+        StaticListableBeanFactory failing = new StaticListableBeanFactory();
+        failing.addBean("failingConsumer", (ChangeEventConsumer) events -> {
+            throw new IllegalStateException("Индекс недоступен");
+        });
+
+        assertThrows(IllegalStateException.class, () -> new OutboxRelay(outboxEventRepository,
+                outboxCursorRepository, failing.getBeanProvider(ChangeEventConsumer.class),
+                new TransactionTemplate(transactionManager), meterRegistry, 10, OutboxGapDetection.TIMEOUT,
+                Duration.ZERO, Duration.ofHours(1)).relaySharedBatch());
+
+        assertThat(outboxEventRepository.findAll(), hasSize(1));
+        assertEquals(0L, getCursor());
+    }
+
+    @Test
+    void relay_whenEarlierEventNotCommitted_thenLaterEventsHeldBackUntilGapTimeout() {
+        jdbcTemplate.update("UPDATE outbox_cursors SET last_event_id = 1000 WHERE consumer = ?", OutboxRelay.CURSOR);
+        LocalDateTime now = LocalDateTime.now();
+        insertEvent(1001, now);
+        insertEvent(1003, now);
+        OutboxRelay relay = relay(10, Duration.ofMinutes(1));
+
+        assertEquals(1, relay.relaySharedBatch());
+
+        insertEvent(1002, now);
+        assertEquals(2, relay.relaySharedBatch());
+
+        // За пропуском 1004 лежит событие старше gapTimeout: транзакция 1004 откатилась.
+        insertEvent(1005, now.minusMinutes(5));
+        assertEquals(1, relay.relaySharedBatch());
+
+        assertThat(received.stream().map(ChangeEvent::id).toList(), contains(1001L, 1002L, 1003L, 1005L));
+        assertEquals(1005L, getCursor());
+    }
+
+    @Test
+    void relay_whenPerInstanceConsumer_thenEveryInstanceReceivesEventsAndSharedOnlyOnce() {
+        List<ChangeEvent> firstInstance = new ArrayList<>();
+        List<ChangeEvent> secondInstance = new ArrayList<>();
+        OutboxRelay first = relay(withLocalConsumer(firstInstance));
+        OutboxRelay second = relay(withLocalConsumer(secondInstance));
+        // Первый проход запоминает позицию: события до запуска экземпляра ему не нужны.
+        first.relayLocalBatch();
+        second.relayLocalBatch();
+
+        final int itemId = itemService.createItem(ownerId, ItemDtoRequest.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .build()).getId();
+
+        assertEquals(1, first.relaySharedBatch() + second.relaySharedBatch());
+        assertEquals(1, first.relayLocalBatch());
+        assertEquals(1, second.relayLocalBatch());
+
+        assertThat(received, hasSize(1));
+        assertThat(firstInstance.stream().map(ChangeEvent::aggregateId).toList(), contains(itemId));
+        assertThat(secondInstance.stream().map(ChangeEvent::aggregateId).toList(), contains(itemId));
+    }
+
+    @Test
+    void purge_whenEventDeliveredAndOlderThanRetention_thenDeleted() {
+        jdbcTemplate.update("UPDATE outbox_cursors SET last_event_id = 1002 WHERE consumer = ?", OutboxRelay.CURSOR);
+        LocalDateTime now = LocalDateTime.now();
+        insertEvent(1001, now.minusHours(2));
+        insertEvent(1002, now);
+        insertEvent(1003, now.minusHours(2));
+
+        relay(10).purge();
+
+        assertThat(outboxEventRepository.findAll().stream()
+                        .map(OutboxEvent::getId)
+                        .filter(id -> id > 1000)
+                        .toList(),
+                containsInAnyOrder(1002L, 1003L));
+    }
+
+    private StaticListableBeanFactory withLocalConsumer(List<ChangeEvent> events) {
+        StaticListableBeanFactory instanceConsumers = new StaticListableBeanFactory();
+        instanceConsumers.addBean("recordingConsumer", (ChangeEventConsumer) received::addAll);
+        instanceConsumers.addBean("localConsumer", new ChangeEventConsumer() {
+            @Override
+            public void accept(List<ChangeEvent> batch) {
+                events.addAll(batch);
+            }
+
+            @Override
+            public boolean perInstance() {
+                return true;
+            }
+        });
+        return instanceConsumers;
+    }
+
+    private long getCursor() {
+        return outboxCursorRepository.findById(OutboxRelay.CURSOR).orElseThrow().getLastEventId();
+    }
+
+    private void insertEvent(long id, LocalDateTime created) {
+        jdbcTemplate.update("INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, "
+                + "created) VALUES (?, 'ITEM', 1, 'UPDATED', '{}', ?)", id, Timestamp.valueOf(created));
+    }
+
+    private OutboxRelay relay(int batchSize) {
+        return relay(batchSize, Duration.ZERO);
+    }
+
+    private OutboxRelay relay(int batchSize, Duration gapTimeout) {
+        return new OutboxRelay(outboxEventRepository, outboxCursorRepository,
+                consumers.getBeanProvider(ChangeEventConsumer.class), new TransactionTemplate(transactionManager),
+                meterRegistry, batchSize, OutboxGapDetection.TIMEOUT, gapTimeout, Duration.ofHours(1));
+    }
+
+    private OutboxRelay relay(StaticListableBeanFactory instanceConsumers) {
+        return new OutboxRelay(outboxEventRepository, outboxCursorRepository,
+                instanceConsumers.getBeanProvider(ChangeEventConsumer.class),
+                new TransactionTemplate(transactionManager), meterRegistry, 10, OutboxGapDetection.TIMEOUT,
+                Duration.ZERO, Duration.ofHours(1));
+    }
+}
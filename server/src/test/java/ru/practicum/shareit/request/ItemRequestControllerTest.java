@@ -11,6 +11,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.Constants;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.user.User;
 
 import java.nio.charset.StandardCharsets;
@@ -130,4 +131,22 @@ class ItemRequestControllerTest {
 
         verify(service, times(1)).getAllRequest();
     }
+
+    @Test
+    void getMatches_whenInvoked_thenResponseIsOkWithItemsInBody() throws Exception {
+        ItemDtoResponse item = ItemDtoResponse.builder()
+                .id(2)
+                .name("Дрель")
+                .build();
+        when(service.getMatches(userId, requestId)).thenReturn(List.of(item));
+
+        mvc.perform(get(url + "/" + requestId + "/matches")
+                        .header(X_SHARER_USER_ID, userId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[0].name", is("Дрель")));
+
+        verify(service, times(1)).getMatches(userId, requestId);
+    }
 }
\ No newline at end of file
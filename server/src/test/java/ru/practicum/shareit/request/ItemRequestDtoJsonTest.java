@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,12 +9,15 @@ import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
+
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 @JsonTest
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ItemRequestDtoJsonTest {
     private final JacksonTester<ItemRequestDto> json;
+    private final ObjectMapper objectMapper;
 
     @Test
     void testItemRequestDto() throws Exception {
@@ -39,4 +43,19 @@ public class ItemRequestDtoJsonTest {
         assertThat(result).extractingJsonPathStringValue("$.requester.email").isEqualTo("requester@itemRequest.com");
         assertThat(result).extractingJsonPathStringValue("$.items").isEqualTo(null);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testItemRequestDto_whenItemsFromDatabase_thenReadAndWrittenByJackson() throws Exception {
+        String items = "[{\"id\" : 2, \"name\" : \"Дрель \\\"Макита\\\" : 18 В\", \"available\" : true, "
+                + "\"requestId\" : 1, \"owner\" : {\"id\" : 3, \"name\" : \"owner\", \"email\" : \"owner@item.com\"}}]";
+        ItemRequestDto request = new ItemRequestMapper(objectMapper).toDto(new ItemRequestFeedRow(1, "description",
+                LocalDateTime.of(2025, 3, 11, 19, 55), 1, "requester", "requester@itemRequest.com", items));
+
+        JsonContent<ItemRequestDto> result = json.write(request);
+
+        assertThat(result).extractingJsonPathNumberValue("$.items[0].id").isEqualTo(2);
+        assertThat(result).extractingJsonPathStringValue("$.items[0].name").isEqualTo("Дрель \"Макита\" : 18 В");
+        assertThat(result).extractingJsonPathStringValue("$.items[0].owner.email").isEqualTo("owner@item.com");
+        assertThat(request.getItems().getFirst().getOwner().getName()).isEqualTo("owner");
+    }
+}
@@ -9,6 +9,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserService;
 
@@ -29,6 +32,7 @@ class ItemRequestServiceImplTest {
     private final EntityManager em;
     private final ItemRequestService service;
     private final UserService userService;
+    private final ItemService itemService;
 
     private ItemRequestDtoRequest requestCreated;
     private ItemRequestDto itemRequestDto;
@@ -81,6 +85,36 @@ class ItemRequestServiceImplTest {
                 hasProperty("description", equalTo(requestCreated.getDescription()))));
     }
 
+    @Test
+    void getRequestById_whenRequestAnswered_thenReturnRequestWithItems() {
+        UserDto ownerDto = new UserDto();
+        ownerDto.setName("Owner");
+        ownerDto.setEmail("owner@email.com");
+        ownerDto = userService.createUser(ownerDto);
+        itemRequestDto = service.createRequest(userDto.getId(), requestCreated);
+
+        ItemDtoRequest itemDtoRequest = new ItemDtoRequest();
+        itemDtoRequest.setName("Дрель");
+        itemDtoRequest.setDescription("Дрель \"Интерскол\"");
+        itemDtoRequest.setAvailable(true);
+        itemDtoRequest.setRequestId(itemRequestDto.getId());
+        ItemDtoResponse itemDtoResponse = itemService.createItem(ownerDto.getId(), itemDtoRequest);
+
+        ItemRequestDto request = service.getRequestById(userDto.getId(), itemRequestDto.getId());
+
+        assertThat(request.getRequester(), hasProperty("email", equalTo(userDto.getEmail())));
+        assertThat(request.getItems(), contains(allOf(
+                hasProperty("id", equalTo(itemDtoResponse.getId())),
+                hasProperty("name", equalTo(itemDtoRequest.getName())),
+                hasProperty("description", equalTo(itemDtoRequest.getDescription())),
+                hasProperty("available", equalTo(true)),
+                hasProperty("requestId", equalTo(itemRequestDto.getId())),
+                hasProperty("owner", hasProperty("id", equalTo(ownerDto.getId())))
+        )));
+        assertThat(service.getAllRequestByUserId(userDto.getId()).getFirst().getItems(),
+                contains(hasProperty("id", equalTo(itemDtoResponse.getId()))));
+    }
+
     @Test
     void getRequestById_whenRequestNotFound_thenNotFoundExceptionThrown() {
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.request;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.outbox.AggregateType;
+import ru.practicum.shareit.outbox.ChangeEvent;
+import ru.practicum.shareit.outbox.ChangeType;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class RequestMatcherTest {
+
+    private final RequestMatcher matcher;
+    private final ItemRequestService requestService;
+    private final ItemService itemService;
+    private final UserService userService;
+
+    private int ownerId;
+    private int requesterId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = createUser("Owner", "owner@email.com");
+        requesterId = createUser("Requester", "requester@email.com");
+    }
+
+    @Test
+    void accept_whenItemMatchesOpenRequest_thenMatchRecordedOnce() {
+        int drillRequestId = createRequest(requesterId, "Нужна ударная дрель");
+        int tentRequestId = createRequest(requesterId, "Ищу палатку на двоих");
+        int ownRequestId = createRequest(ownerId, "Нужна дрель");
+        ItemDtoResponse item = createItem("Дрель Bosch", "Ударная дрель с набором сверл", null);
+
+        matcher.accept(List.of(itemCreated(item.getId())));
+        matcher.accept(List.of(itemCreated(item.getId())));
+
+        assertThat(names(requestService.getMatches(requesterId, drillRequestId)), contains("Дрель Bosch"));
+        assertThat(requestService.getMatches(requesterId, tentRequestId), empty());
+        assertThat(requestService.getMatches(ownerId, ownRequestId), empty());
+    }
+
+    @Test
+    void accept_whenItemAnswersRequest_thenRequestNoLongerMatched() {
+        int requestId = createRequest(requesterId, "Нужен велосипед горный");
+        createItem("Велосипед", "Горный велосипед", requestId);
+        ItemDtoResponse second = createItem("Велосипед горный", "Еще один горный велосипед", null);
+
+        matcher.accept(List.of(itemCreated(second.getId())));
+
+        assertThat(requestService.getMatches(requesterId, requestId), empty());
+    }
+
+    @Test
+    void getMatches_whenNotRequester_thenNotFoundExceptionThrown() {
+        int requestId = createRequest(requesterId, "Нужна лестница");
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> requestService.getMatches(ownerId, requestId));
+        assertThat(exception.getMessage(), is("Запрос с id - " + requestId + " не найден!"));
+    }
+
+    private int createUser(String name, String email) {
+        UserDto userDto = new UserDto();
+        userDto.setName(name);
+        userDto.setEmail(email);
+        return userService.createUser(userDto).getId();
+    }
+
+    private int createRequest(int userId, String description) {
+        ItemRequestDtoRequest request = new ItemRequestDtoRequest();
+        request.setDescription(description);
+        return requestService.createRequest(userId, request).getId();
+    }
+
+    private ItemDtoResponse createItem(String name, String description, Integer requestId) {
+        return itemService.createItem(ownerId, ItemDtoRequest.builder()
+                .name(name)
+                .description(description)
+                .available(true)
+                .requestId(requestId)
+                .build());
+    }
+
+    private ChangeEvent itemCreated(int itemId) {
+        return new ChangeEvent(itemId, AggregateType.ITEM, itemId, ChangeType.CREATED, "{}", LocalDateTime.now());
+    }
+
+    private List<String> names(List<ItemDtoResponse> items) {
+        return items.stream()
+                .map(ItemDtoResponse::getName)
+                .toList();
+    }
+}
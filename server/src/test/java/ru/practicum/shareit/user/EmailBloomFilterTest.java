@@ -0,0 +1,52 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailBloomFilterTest {
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Test
+    void mightContain_whenNotLoaded_thenAlwaysTrue() {
+        EmailBloomFilter filter = new EmailBloomFilter(repository, meterRegistry, 1000, 0.01);
+
+        assertThat(filter.mightContain("new@email.com"), is(true));
+    }
+
+    @Test
+    void mightContain_whenLoadedAndAdded_thenNoFalseNegativesAndFewFalsePositives() {
+        when(repository.findEmailsAfter(eq(0), any(Pageable.class)))
+                .thenReturn(List.of(new UserEmail(1, "ivan@email.com"), new UserEmail(2, "peter@email.com")));
+        EmailBloomFilter filter = new EmailBloomFilter(repository, meterRegistry, 10_000, 0.01);
+        filter.load();
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i + "@email.com"));
+
+        assertThat(filter.mightContain("ivan@email.com"), is(true));
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i + "@email.com")),
+                is(true));
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("other" + i + "@email.com"))
+                .count();
+        assertThat(falsePositives, lessThan(300L));
+    }
+}
\ No newline at end of file
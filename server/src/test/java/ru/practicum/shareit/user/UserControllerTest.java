@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -15,7 +16,8 @@ import ru.practicum.shareit.Constants;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -109,32 +111,71 @@ class UserControllerTest {
     }
 
     @Test
-    void getAllUsers_whenInvoked_thenResponseIsOkWithUsersListInBody() throws Exception {
+    void getUsers_whenInvoked_thenResponseIsOkWithUsersListInBody() throws Exception {
         List<UserDto> users = List.of(userDto);
+        ArgumentCaptor<UserQuery> queryCaptor = ArgumentCaptor.forClass(UserQuery.class);
 
-        when(service.getUsers()).thenReturn(users);
+        when(service.getUsers(queryCaptor.capture())).thenReturn(users);
 
         mvc.perform(get("/users")
+                        .param("size", "20")
+                        .param("after", "5")
+                        .param("name", "Ivan")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().json(mapper.writeValueAsString(users)));
 
-        verify(service, times(1)).getUsers();
+        assertThat(queryCaptor.getValue(), allOf(
+                hasProperty("from", is(0)),
+                hasProperty("size", is(20)),
+                hasProperty("after", is(5)),
+                hasProperty("email", nullValue()),
+                hasProperty("name", is("Ivan"))));
     }
 
     @Test
-    void deleteUser_whenUserFound_thenResponseIsOk() throws Exception {
+    void deleteUser_whenUserFound_thenResponseIsOkWithDeletionInBody() throws Exception {
         final int userId = userDto.getId();
+        UserDeletionDto deletion = UserDeletionDto.builder()
+                .userId(userId)
+                .status(UserDeletionStatus.PENDING)
+                .stage(UserDeletionStage.BOOKINGS)
+                .build();
+
+        when(service.deleteUser(userId)).thenReturn(deletion);
 
         mvc.perform(delete("/users/" + userId)
                         .header(X_SHARER_USER_ID, userId)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId", is(userId)))
+                .andExpect(jsonPath("$.status", is("PENDING")));
 
         verify(service, times(1)).deleteUser(userId);
     }
+
+    @Test
+    void getDeletion_whenDeletionInProgress_thenResponseIsOkWithProgressInBody() throws Exception {
+        final int userId = userDto.getId();
+        UserDeletionDto deletion = UserDeletionDto.builder()
+                .userId(userId)
+                .status(UserDeletionStatus.IN_PROGRESS)
+                .stage(UserDeletionStage.ITEMS)
+                .deletedRows(1500)
+                .build();
+
+        when(service.getDeletion(userId)).thenReturn(deletion);
+
+        mvc.perform(get("/users/{userId}/deletion", userId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stage", is("ITEMS")))
+                .andExpect(jsonPath("$.deletedRows", is(1500)));
+
+        verify(service, times(1)).getDeletion(userId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStateCache;
+import ru.practicum.shareit.booking.BookingViewRepository;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.comment.ItemCommentStatsRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.outbox.ChangeType;
+import ru.practicum.shareit.outbox.OutboxEventRepository;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.request.ItemRequestDtoRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.RequestMatchRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserDeletionProcessorTest {
+
+    private final EntityManager em;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
+    private final UserDeletionRepository userDeletionRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final BookingStateCache bookingStateCache;
+    private final BookingMapper bookingMapper;
+    private final CommentRepository commentRepository;
+    private final ItemCommentStatsRepository itemCommentStatsRepository;
+    private final ItemRepository itemRepository;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemRequestRepository itemRequestRepository;
+    private final RequestMatchRepository requestMatchRepository;
+    private final OutboxWriter outboxWriter;
+    private final OutboxEventRepository outboxEventRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private UserDeletionProcessor processor;
+    private int deletedUserId;
+    private int bookerId;
+    private int otherOwnerId;
+
+    @BeforeEach
+    void setUp() {
+        // Пачка из одной строки проверяет переходы между шагами на каждой строке.
+        processor = new UserDeletionProcessor(userDeletionRepository, userRepository, bookingRepository,
+                bookingViewRepository, bookingStateCache, bookingMapper, commentRepository,
+                itemCommentStatsRepository, itemRepository, itemAvailabilityIndex, itemRequestRepository,
+                requestMatchRepository, outboxWriter, new TransactionTemplate(transactionManager), meterRegistry, 1);
+
+        deletedUserId = userService.createUser(new UserDto(null, "Deleted User", "deleted@email.com")).getId();
+        bookerId = userService.createUser(new UserDto(null, "Booker Name", "booker@email.com")).getId();
+        otherOwnerId = userService.createUser(new UserDto(null, "Other Owner", "other@email.com")).getId();
+    }
+
+    @Test
+    void process_whenUserDeleted_thenSameRowsRemovedAsByCascade() {
+        final int ownItemId = createItem(deletedUserId, null);
+        final int otherItemId = createItem(otherOwnerId, null);
+        final int requestId = itemRequestService.createRequest(deletedUserId,
+                ItemRequestDtoRequest.builder().description("Нужна дрель").build()).getId();
+        final int answerItemId = createItem(otherOwnerId, requestId);
+
+        final int ownItemBookingId = createBooking(bookerId, ownItemId);
+        final int ownBookingId = createBooking(deletedUserId, otherItemId);
+        final int answerItemBookingId = createBooking(bookerId, answerItemId);
+        final int keptBookingId = createBooking(bookerId, otherItemId);
+
+        addComment(bookerId, ownItemId);
+        addComment(deletedUserId, otherItemId);
+        final int keptCommentId = addComment(bookerId, otherItemId);
+        em.createNativeQuery("UPDATE item_comment_stats SET comment_count = 2 WHERE item_id = ?")
+                .setParameter(1, otherItemId)
+                .executeUpdate();
+
+        userService.deleteUser(deletedUserId);
+        processor.process(deletedUserId);
+        em.clear();
+
+        UserDeletionDto deletion = userService.getDeletion(deletedUserId);
+        assertThat(deletion, allOf(
+                hasProperty("status", equalTo(UserDeletionStatus.DONE)),
+                hasProperty("stage", equalTo(UserDeletionStage.USER)),
+                hasProperty("deletedRows", equalTo(9L)),
+                hasProperty("finished", notNullValue())));
+
+        assertThat(userRepository.findById(deletedUserId).isPresent(), is(false));
+        assertThat(ids("SELECT i.id FROM Item AS i"), contains(otherItemId));
+        assertThat(ids("SELECT b.id FROM Booking AS b"), contains(keptBookingId));
+        assertThat(ids("SELECT v.bookingId FROM BookingView AS v"), contains(keptBookingId));
+        assertThat(ids("SELECT c.id FROM Comment AS c"), contains(keptCommentId));
+        assertThat(ids("SELECT ir.id FROM ItemRequest AS ir"), empty());
+        assertEquals(1L, itemCommentStatsRepository.findById(otherItemId).orElseThrow().getCommentCount());
+        assertThat(outboxEventRepository.findAll().stream()
+                        .filter(event -> event.getType() == ChangeType.DELETED)
+                        .map(event -> event.getAggregateType() + " " + event.getAggregateId())
+                        .toList(),
+                containsInAnyOrder("BOOKING " + ownItemBookingId, "BOOKING " + ownBookingId,
+                        "BOOKING " + answerItemBookingId, "ITEM " + ownItemId, "ITEM " + answerItemId,
+                        "REQUEST " + requestId, "USER " + deletedUserId));
+    }
+
+    @Test
+    void process_whenUserMarkedDeleted_thenUserNotFoundBeforeRowsRemoved() {
+        final int itemId = createItem(deletedUserId, null);
+
+        userService.deleteUser(deletedUserId);
+
+        assertThrows(NotFoundException.class, () -> userService.getUserById(deletedUserId));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> createBooking(bookerId, itemId));
+        assertEquals("Вещь с id - " + itemId + " не найдена", exception.getMessage());
+        assertThat(userService.getDeletion(deletedUserId).getStatus(), equalTo(UserDeletionStatus.PENDING));
+    }
+
+    private int createItem(int ownerId, Integer requestId) {
+        return itemService.createItem(ownerId, ItemDtoRequest.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .requestId(requestId)
+                .build()).getId();
+    }
+
+    private int createBooking(int userId, int itemId) {
+        return bookingService.createBooking(userId, BookingDtoRequest.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+    }
+
+    // Комментарий через сервис требует завершенного бронирования, поэтому он пишется напрямую.
+    private int addComment(int authorId, int itemId) {
+        em.createNativeQuery("INSERT INTO comments (text, item_id, author_id, created) VALUES ('Отлично', ?, ?, ?)")
+                .setParameter(1, itemId)
+                .setParameter(2, authorId)
+                .setParameter(3, LocalDateTime.now())
+                .executeUpdate();
+        return ids("SELECT MAX(c.id) FROM Comment AS c").getFirst();
+    }
+
+    private List<Integer> ids(String query) {
+        return em.createQuery(query, Integer.class).getResultList();
+    }
+}
@@ -10,8 +10,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.exception.DataDuplicationException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -56,6 +58,19 @@ public class UserServiceImplTest {
                 duplicateKeyException.getMessage());
     }
 
+    @Test
+    void createUser_whenEmailAddedBypassingFilter_thenDuplicateFoundExceptionThrown() {
+        UserDto otherUser = new UserDto(null, "Other", "registered.elsewhere@ya.ru");
+        em.createNativeQuery("INSERT INTO users (name, email) VALUES ('Other', :email)")
+                .setParameter("email", otherUser.getEmail())
+                .executeUpdate();
+
+        DataDuplicationException duplicateKeyException = assertThrows(DataDuplicationException.class,
+                () -> service.createUser(otherUser));
+        assertEquals("Данный email:" + otherUser.getEmail() + " уже используется",
+                duplicateKeyException.getMessage());
+    }
+
     @Test
     void updateUserEmail_whenEmailNotValid_thenDuplicateFoundExceptionThrown() {
         service.createUser(userDto);
@@ -126,30 +141,111 @@ public class UserServiceImplTest {
     }
 
     @Test
-    void getAllUsers_whenInvoked_thenResponseIsOkWithUsersListInBody() {
+    void getUsers_whenInvoked_thenResponseIsOkWithUsersListInBody() {
         List<UserDto> createdUsers = List.of(
                 new UserDto(2, "Пётр Петров", "peter@email.com"),
                 new UserDto(3, "Иван Иванов", "ivan@email.com"),
                 new UserDto(4, "Сидр Сидоров", "sidr@email.com"));
 
         createdUsers.forEach(service::createUser);
-        List<UserDto> users = service.getUsers();
+        List<UserDto> users = service.getUsers(UserQuery.builder().build());
 
-        users.forEach(userDto -> assertThat(users, hasItem(allOf(
+        createdUsers.forEach(userDto -> assertThat(users, hasItem(allOf(
                 hasProperty("id", notNullValue()),
                 hasProperty("name", equalTo(userDto.getName())),
                 hasProperty("email", equalTo(userDto.getEmail()))
         ))));
     }
 
+    @Test
+    void getUsers_whenPagedByOffsetAndAfterId_thenSamePagesReturned() {
+        List<Integer> ids = IntStream.range(0, 5)
+                .mapToObj(i -> service.createUser(new UserDto(0, "user" + i, "user" + i + "@email.com")).getId())
+                .toList();
+
+        List<UserDto> secondPage = service.getUsers(UserQuery.builder().from(2).size(2).build());
+        List<UserDto> afterFirstPage = service.getUsers(UserQuery.builder().size(2).after(ids.get(1)).build());
+
+        assertThat(secondPage, contains(hasProperty("id", is(ids.get(2))), hasProperty("id", is(ids.get(3)))));
+        assertThat(afterFirstPage, contains(hasProperty("id", is(ids.get(2))), hasProperty("id", is(ids.get(3)))));
+    }
+
+    @Test
+    void getUsers_whenOffsetNotMultipleOfSize_thenPageStartsAtOffset() {
+        List<Integer> ids = IntStream.range(0, 5)
+                .mapToObj(i -> service.createUser(new UserDto(0, "user" + i, "user" + i + "@email.com")).getId())
+                .toList();
+
+        List<UserDto> users = service.getUsers(UserQuery.builder().from(3).size(2).build());
+
+        assertThat(users, contains(hasProperty("id", is(ids.get(3))), hasProperty("id", is(ids.get(4)))));
+    }
+
+    @Test
+    void getUsers_whenPrefixesGiven_thenOnlyMatchingUsersReturned() {
+        service.createUser(new UserDto(0, "Иван Иванов", "ivan@email.com"));
+        service.createUser(new UserDto(0, "Иван Петров", "ivan_p@email.com"));
+        service.createUser(new UserDto(0, "Пётр Иванов", "ivanova@email.com"));
+
+        List<UserDto> byName = service.getUsers(UserQuery.builder().name("Иван").build());
+        List<UserDto> byEmail = service.getUsers(UserQuery.builder().email("ivan_").build());
+        List<UserDto> byBoth = service.getUsers(UserQuery.builder().name("Иван").email("ivan@").build());
+
+        assertThat(byName, contains(hasProperty("email", is("ivan@email.com")),
+                hasProperty("email", is("ivan_p@email.com"))));
+        assertThat(byEmail, contains(hasProperty("email", is("ivan_p@email.com"))));
+        assertThat(byBoth, contains(hasProperty("email", is("ivan@email.com"))));
+    }
+
+    @Test
+    void getUsers_whenSizeTooLarge_thenValidationExceptionThrown() {
+        UserQuery query = UserQuery.builder().size(101).build();
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> service.getUsers(query));
+        assertEquals("Страница не может содержать больше 100 пользователей", exception.getMessage());
+    }
+
     @Test
     void deleteUser_whenUserFound_thenResponseIsOk() {
         UserDto savedUser = service.createUser(userDto);
         final int userId = savedUser.getId();
-        service.deleteUser(userId);
+        UserDeletionDto deletion = service.deleteUser(userId);
 
         NotFoundException userNotFoundException = assertThrows(NotFoundException.class,
                 () -> service.getUserById(userId));
         assertEquals("Пользователь с id - " + userId + " не найден", userNotFoundException.getMessage());
+        assertThat(deletion, allOf(
+                hasProperty("userId", equalTo(userId)),
+                hasProperty("status", equalTo(UserDeletionStatus.PENDING)),
+                hasProperty("stage", equalTo(UserDeletionStage.BOOKINGS))));
+        assertThat(service.getDeletion(userId), hasProperty("requested", equalTo(deletion.getRequested())));
+        assertThat(service.getUsers(UserQuery.builder().build()), empty());
+    }
+
+    @Test
+    void deleteUser_whenUserDeleted_thenEmailCanBeRegisteredAgain() {
+        final int userId = service.createUser(userDto).getId();
+        service.deleteUser(userId);
+
+        UserDto newUser = service.createUser(new UserDto(null, "New Name", userDto.getEmail()));
+
+        assertThat(newUser, hasProperty("email", equalTo(userDto.getEmail())));
+        assertThat(service.getUsers(UserQuery.builder().build()), contains(hasProperty("id", is(newUser.getId()))));
+    }
+
+    @Test
+    void deleteUser_whenUserAlreadyDeleted_thenNotFoundExceptionThrown() {
+        final int userId = service.createUser(userDto).getId();
+        service.deleteUser(userId);
+
+        assertThrows(NotFoundException.class, () -> service.deleteUser(userId));
+    }
+
+    @Test
+    void getDeletion_whenUserNotDeleted_thenNotFoundExceptionThrown() {
+        final int userId = service.createUser(userDto).getId();
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> service.getDeletion(userId));
+        assertEquals("Удаление пользователя с id - " + userId + " не найдено", exception.getMessage());
     }
 }
\ No newline at end of file